@@ -0,0 +1,51 @@
+package com.quantumluke.quantumshops.controllers;
+
+import org.springframework.http.HttpRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One satisfiable byte range of a representation, with inclusive {@code start} and {@code end}.
+ */
+record ByteRange(long start, long end) {
+
+    long length() {
+        return end - start + 1;
+    }
+
+    String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Resolves a {@code Range} header against a representation of the given length. Returns null when
+     * the header is malformed (it is then ignored and the whole representation served), and an empty
+     * list when none of the ranges can be satisfied or together they ask for more than the whole.
+     */
+    static List<ByteRange> parse(String header, long totalLength) {
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (httpRanges.isEmpty()) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>(httpRanges.size());
+        long requested = 0;
+        for (HttpRange httpRange : httpRanges) {
+            try {
+                ByteRange range = new ByteRange(httpRange.getRangeStart(totalLength), httpRange.getRangeEnd(totalLength));
+                if (range.length() > 0) {
+                    ranges.add(range);
+                    requested += range.length();
+                }
+            } catch (IllegalArgumentException e) {
+                // Unsatisfiable on its own; the request is still served if another range is.
+            }
+        }
+        return requested > totalLength ? List.of() : ranges;
+    }
+}
@@ -1,7 +1,7 @@
 package com.quantumluke.quantumshops.controllers;
 
+import com.quantumluke.quantumshops.dto.CartDto;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
-import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.response.ApiResponse;
 import com.quantumluke.quantumshops.services.cart.ICartService;
 import lombok.RequiredArgsConstructor;
@@ -20,7 +20,7 @@ public class CartController {
     @GetMapping("/{cartId}")
     public ResponseEntity<ApiResponse> getCart(@PathVariable Long cartId) {
         try {
-            Cart cart = cartService.getCartById(cartId);
+            CartDto cart = cartService.getCartDto(cartId);
             return ResponseEntity.ok(new ApiResponse(("Cart fetched successfully"), cart));
         } catch (ResourceNotFoundException e){
           return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
@@ -1,8 +1,10 @@
 package com.quantumluke.quantumshops.controllers;
 
+import com.quantumluke.quantumshops.dto.CartDto;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
 import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.models.User;
+import com.quantumluke.quantumshops.request.CartItemOperation;
 import com.quantumluke.quantumshops.response.ApiResponse;
 import com.quantumluke.quantumshops.services.cart.ICartItemService;
 import com.quantumluke.quantumshops.services.cart.ICartService;
@@ -13,6 +15,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("${api.prefix}/cart-items")
@@ -64,4 +68,26 @@ public class CartItemController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> applyOperations(@RequestBody List<CartItemOperation> operations) {
+        try {
+            User user = userService.getAuthentivatedUser();
+            Cart cart = cartService.initializeCart(user);
+            CartDto cartDto = cartItemService.applyOperations(cart.getId(), operations);
+            return ResponseEntity.ok(new ApiResponse("Cart updated successfully", cartDto));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage(), null));
+        } catch (JwtException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error updating cart: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/retry/stats")
+    public ResponseEntity<ApiResponse> getRetryStats() {
+        return ResponseEntity.ok(new ApiResponse("Cart update retry stats fetched successfully", cartItemService.getRetryStats()));
+    }
 }
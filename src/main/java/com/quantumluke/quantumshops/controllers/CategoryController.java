@@ -6,6 +6,7 @@ import com.quantumluke.quantumshops.models.Category;
 import com.quantumluke.quantumshops.response.ApiResponse;
 import com.quantumluke.quantumshops.services.category.ICategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,18 +18,31 @@ public class CategoryController {
     private final ICategoryService categoryService;
 
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllCategories() {
+    public ResponseEntity<ApiResponse> getAllCategories(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(new ApiResponse("Categories fetched successfully", categoryService.getAllCategories()));
+            String eTag = ETags.of("categories", categoryService.getAllCategoryVersions());
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Categories fetched successfully", categoryService.getAllCategories()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching categories: ", e.getMessage()));
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getCacheStats() {
+        return ResponseEntity.ok(new ApiResponse("Category cache stats fetched successfully", categoryService.getCacheStats()));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse> getCategoryById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(new ApiResponse("Category fetched successfully", categoryService.getCategoryById(id)));
+            String eTag = ETags.of("category", id, categoryService.getCategoryVersion(id));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Category fetched successfully", categoryService.getCategoryById(id)));
         } catch (ResourceNotFoundException e){
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
@@ -37,9 +51,17 @@ public class CategoryController {
     }
 
     @GetMapping("/{name}")
-    public ResponseEntity<ApiResponse> getCategoryByName(@PathVariable String name) {
+    public ResponseEntity<ApiResponse> getCategoryByName(@PathVariable String name, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(new ApiResponse("Category fetched successfully", categoryService.getCategoryByName(name)));
+            Category category = categoryService.getCategoryByName(name);
+            if (category == null) {
+                throw new ResourceNotFoundException("Category not found with name: " + name);
+            }
+            String eTag = ETags.of("category", category.getId(), category.getVersion());
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Category fetched successfully", category));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
@@ -0,0 +1,53 @@
+package com.quantumluke.quantumshops.controllers;
+
+import com.quantumluke.quantumshops.repository.EntityVersion;
+import com.quantumluke.quantumshops.response.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Strong entity tags built from entity versions, so a conditional GET can be answered from a
+ * version lookup without loading or serializing the entities themselves.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(String kind, Long id, Long version) {
+        return "\"" + kind + "-" + id + "-" + version + "\"";
+    }
+
+    static String of(String kind, List<EntityVersion> versions) {
+        StringBuilder ids = new StringBuilder(versions.size() * 12);
+        for (EntityVersion entityVersion : versions) {
+            ids.append(entityVersion.getId()).append(':').append(entityVersion.getVersion()).append(',');
+        }
+        byte[] digestInput = ids.toString().getBytes(StandardCharsets.UTF_8);
+        return "\"" + kind + "-" + versions.size() + "-" + DigestUtils.md5DigestAsHex(digestInput) + "\"";
+    }
+
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity<ApiResponse> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+}
@@ -1,47 +1,219 @@
 package com.quantumluke.quantumshops.controllers;
 
 import com.quantumluke.quantumshops.dto.ImageDto;
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
 import com.quantumluke.quantumshops.models.Image;
 import com.quantumluke.quantumshops.response.ApiResponse;
 import com.quantumluke.quantumshops.services.image.IImageService;
+import com.quantumluke.quantumshops.services.image.ImageVariant;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.sql.SQLException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("${api.prefix}/images")
 public class ImageController {
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
     private final IImageService imageService;
 
+    @Value("${images.bundle.max-products:100}")
+    private int maxBundleProducts;
 
     @PostMapping("/upload")
     public ResponseEntity<ApiResponse> saveImages(@RequestParam List<MultipartFile> files, @RequestParam Long productId) {
         try {
             List<ImageDto> imageDtos = imageService.saveImages(files, productId);
-            return ResponseEntity.ok(new ApiResponse("Images uploaded successfully", imageDtos));
+            boolean allSaved = imageDtos.stream().allMatch(imageDto -> imageDto.getError() == null);
+            return ResponseEntity.ok(new ApiResponse(allSaved ? "Images uploaded successfully" : "Some images failed to upload", imageDtos));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Failed to upload images: " , e.getMessage()));
         }
     }
 
-    @GetMapping("/image/download/{imageId}")
-    public ResponseEntity<Resource> downloadImage(@PathVariable Long imageId) throws SQLException {
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<ApiResponse> getProductImages(@PathVariable Long productId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("Images fetched successfully", imageService.getImagesByProductId(productId)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Failed to fetch images: ", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/product/{productId}/bundle")
+    public ResponseEntity<StreamingResponseBody> downloadProductImages(@PathVariable Long productId) {
+        return bundle(List.of(productId), "product-" + productId + "-images.zip");
+    }
+
+    /**
+     * Bundles the images of several products. The number of products is capped, as every image is
+     * read from storage while the request holds its worker thread.
+     */
+    @GetMapping("/bundle")
+    public ResponseEntity<?> downloadImageBundle(@RequestParam List<Long> productIds) {
+        List<Long> distinctIds = productIds.stream().distinct().toList();
+        if (distinctIds.size() > maxBundleProducts) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("A bundle can contain at most " + maxBundleProducts + " products", null));
+        }
+        return bundle(distinctIds, "images.zip");
+    }
+
+    private ResponseEntity<StreamingResponseBody> bundle(List<Long> productIds, String filename) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(outputStream -> imageService.writeImageBundle(productIds, outputStream));
+    }
+
+    /**
+     * Serves the image bytes. {@link Image#getDownloadUrl()} includes the content hash, so an update
+     * produces a new URL and the response to a hashed URL can be cached for good. The bare id URL
+     * stays available and must be revalidated; a hashed URL whose content has since been replaced
+     * redirects to the current one.
+     */
+    @GetMapping({"/image/download/{imageId}", "/image/download/{imageId}/{contentHash}"})
+    public ResponseEntity<StreamingResponseBody> downloadImage(@PathVariable Long imageId,
+                                                               @PathVariable(required = false) String contentHash,
+                                                               @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                               @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
         Image image = imageService.getImageById(imageId);
-        ByteArrayResource resource = new ByteArrayResource(image.getImage().getBytes(1, (int) image.getImage().length()));
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(image.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + image.getFilename() + "\"")
-                .body(resource);
+        if (contentHash != null && !contentHash.equals(image.getContentHash())) {
+            return redirect(image.getDownloadUrl());
+        }
+        String eTag = image.getContentHash() == null ? null : "\"" + image.getContentHash() + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(contentHash != null ? IMMUTABLE : CacheControl.noCache());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (eTag != null) {
+            headers.setETag(eTag);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+        }
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + image.getFilename() + "\"");
+        long length = imageService.getImageSize(image);
+        MediaType contentType = MediaType.parseMediaType(image.getFileType());
+
+        // A Range is only honoured while the client's copy is current; otherwise it gets the whole file.
+        boolean rangeApplies = range != null && (ifRange == null || ifRange.equals(eTag));
+        List<ByteRange> ranges = rangeApplies ? ByteRange.parse(range, length) : null;
+        if (ranges == null) {
+            headers.setContentType(contentType);
+            headers.setContentLength(length);
+            StreamingResponseBody body = outputStream -> imageService.transferImage(image, 0, length, Channels.newChannel(outputStream));
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+        if (ranges.isEmpty()) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        if (ranges.size() == 1) {
+            ByteRange byteRange = ranges.get(0);
+            headers.setContentType(contentType);
+            headers.setContentLength(byteRange.length());
+            headers.set(HttpHeaders.CONTENT_RANGE, byteRange.contentRange(length));
+            StreamingResponseBody body = outputStream ->
+                    imageService.transferImage(image, byteRange.start(), byteRange.length(), Channels.newChannel(outputStream));
+            return new ResponseEntity<>(body, headers, HttpStatus.PARTIAL_CONTENT);
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ByteRange byteRange : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n" + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + byteRange.contentRange(length) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + byteRange.length();
+        }
+        byte[] closingBoundary = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        headers.setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        headers.setContentLength(contentLength + closingBoundary.length);
+        StreamingResponseBody body = outputStream -> {
+            WritableByteChannel channel = Channels.newChannel(outputStream);
+            for (int i = 0; i < ranges.size(); i++) {
+                outputStream.write(partHeaders.get(i));
+                imageService.transferImage(image, ranges.get(i).start(), ranges.get(i).length(), channel);
+            }
+            outputStream.write(closingBoundary);
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    @GetMapping(value = {"/image/download/{imageId}", "/image/download/{imageId}/{contentHash}"}, params = "w")
+    public ResponseEntity<?> downloadImageVariant(@PathVariable Long imageId,
+                                                  @PathVariable(required = false) String contentHash,
+                                                  @RequestParam("w") int width,
+                                                  @RequestParam(defaultValue = "jpeg") String format,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            ImageVariantFormat variantFormat = ImageVariantFormat.from(format);
+            String currentHash = imageService.getImageContentHash(imageId);
+            if (contentHash != null && !contentHash.equals(currentHash)) {
+                return redirect(Image.downloadUrlOf(imageId, currentHash) + "?w=" + width + "&format=" + variantFormat.getFormatName());
+            }
+            String eTag = currentHash == null ? null : "\"" + currentHash + "-w" + width + "." + variantFormat.getExtension() + "\"";
+            CacheControl cacheControl = contentHash != null ? IMMUTABLE : CacheControl.noCache();
+            if (eTag != null && ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(eTag).build();
+            }
+
+            ImageVariant variant = imageService.getImageVariant(imageId, currentHash, width, variantFormat);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl);
+            if (eTag != null) {
+                response.eTag(eTag);
+            }
+            return response
+                    .contentType(MediaType.parseMediaType(variant.contentType()))
+                    .contentLength(variant.content().length)
+                    .body(variant.content());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse("Failed to resize image: ", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/variants/cache/stats")
+    public ResponseEntity<ApiResponse> getVariantCacheStats() {
+        return ResponseEntity.ok(new ApiResponse("Image variant cache stats fetched successfully", imageService.getVariantCacheStats()));
+    }
+
+    @GetMapping("/storage/stats")
+    public ResponseEntity<ApiResponse> getStorageStats() {
+        return ResponseEntity.ok(new ApiResponse("Image storage stats fetched successfully", imageService.getStorageStats()));
+    }
+
+    private static <T> ResponseEntity<T> redirect(String location) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(location))
+                .cacheControl(CacheControl.noCache())
+                .build();
     }
 
     @PutMapping("/image/{imageId}/update")
@@ -1,19 +1,29 @@
 package com.quantumluke.quantumshops.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.dto.ProductPageDto;
+import com.quantumluke.quantumshops.dto.ProductSearchHitDto;
 import com.quantumluke.quantumshops.exceptions.AlreadyExistsException;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
 import com.quantumluke.quantumshops.models.Product;
 import com.quantumluke.quantumshops.request.AddProductRequest;
 import com.quantumluke.quantumshops.request.UpdateProductRequest;
 import com.quantumluke.quantumshops.response.ApiResponse;
+import com.quantumluke.quantumshops.response.ProductIngestSummary;
 import com.quantumluke.quantumshops.services.product.IProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -21,24 +31,33 @@ import java.util.List;
 @RequestMapping("${api.prefix}/products")
 public class ProductController {
     private final IProductService productService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllProducts() {
+    public ResponseEntity<ApiResponse> getAllProducts(@RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "20") int limit, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Product> products = productService.getAllProducts();
-            List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("Products fetched successfully", convertedProducts));
+            String eTag = ETags.of("products", productService.getAllProductVersions(afterId, limit));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            List<Product> products = productService.getAllProducts(afterId, limit);
+            ProductPageDto page = productService.getConvertedPage(products, limit);
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Products fetched successfully", page));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching products: ", e.getMessage()));
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            String eTag = ETags.of("product", id, productService.getProductVersion(id));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
             Product product = productService.getProductById(id);
             ProductDto convertedProduct = productService.convertToDto(product);
-            return ResponseEntity.ok(new ApiResponse("Product fetched successfully", convertedProduct));
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Product fetched successfully", convertedProduct));
         } catch (ResourceNotFoundException e){
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
@@ -47,61 +66,89 @@ public class ProductController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<ApiResponse> getProductsByCategory(@PathVariable String category, @RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "20") int limit, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Product> products = productService.getProductsByCategory(category);
-            List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("Products fetched successfully", convertedProducts));
+            String eTag = ETags.of("products", productService.getProductVersionsByCategory(category, afterId, limit));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            List<Product> products = productService.getProductsByCategory(category, afterId, limit);
+            ProductPageDto page = productService.getConvertedPage(products, limit);
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Products fetched successfully", page));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching products by category: ", e.getMessage()));
         }
     }
 
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<ApiResponse> getProductsByBrand(@PathVariable String brand) {
+    public ResponseEntity<ApiResponse> getProductsByBrand(@PathVariable String brand, @RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "20") int limit, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Product> products = productService.getProductsByBrand(brand);
-            List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("Products fetched successfully",convertedProducts));
+            String eTag = ETags.of("products", productService.getProductVersionsByBrand(brand, afterId, limit));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            List<Product> products = productService.getProductsByBrand(brand, afterId, limit);
+            ProductPageDto page = productService.getConvertedPage(products, limit);
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Products fetched successfully", page));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching products by brand: ", e.getMessage()));
         }
     }
 
     @GetMapping("/category/{category}/brand/{brand}")
-    public ResponseEntity<ApiResponse> getProductsByCategoryAndBrand(@PathVariable String category, @PathVariable String brand) {
+    public ResponseEntity<ApiResponse> getProductsByCategoryAndBrand(@PathVariable String category, @PathVariable String brand, @RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "20") int limit, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Product> products = productService.getProductsByCategoryAndBrand(category, brand);
-            List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("Products fetched successfully", convertedProducts));
+            String eTag = ETags.of("products", productService.getProductVersionsByCategoryAndBrand(category, brand, afterId, limit));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            List<Product> products = productService.getProductsByCategoryAndBrand(category, brand, afterId, limit);
+            ProductPageDto page = productService.getConvertedPage(products, limit);
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Products fetched successfully", page));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching products by category and brand: ", e.getMessage()));
         }
     }
 
     @GetMapping("/name/{name}")
-    public ResponseEntity<ApiResponse> getProductsByName(@PathVariable String name) {
+    public ResponseEntity<ApiResponse> getProductsByName(@PathVariable String name, @RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "20") int limit, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Product> products = productService.getProductsByName(name);
-            List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("Products fetched successfully", convertedProducts));
+            String eTag = ETags.of("products", productService.getProductVersionsByName(name, afterId, limit));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            List<Product> products = productService.getProductsByName(name, afterId, limit);
+            ProductPageDto page = productService.getConvertedPage(products, limit);
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Products fetched successfully", page));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching products by name: ", e.getMessage()));
         }
     }
 
     @GetMapping("/brand/{brand}/name/{name}")
-    public ResponseEntity<ApiResponse> getProductsByBrandAndName(@PathVariable String brand, @PathVariable String name) {
+    public ResponseEntity<ApiResponse> getProductsByBrandAndName(@PathVariable String brand, @PathVariable String name, @RequestParam(defaultValue = "0") Long afterId, @RequestParam(defaultValue = "20") int limit, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Product> products = productService.getProductsByBrandAndName(brand, name);
-            List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("Products fetched successfully", convertedProducts));
+            String eTag = ETags.of("products", productService.getProductVersionsByBrandAndName(brand, name, afterId, limit));
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ETags.notModified(eTag);
+            }
+            List<Product> products = productService.getProductsByBrandAndName(brand, name, afterId, limit);
+            ProductPageDto page = productService.getConvertedPage(products, limit);
+            return ResponseEntity.ok().eTag(eTag).body(new ApiResponse("Products fetched successfully", page));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching products by brand and name: ", e.getMessage()));
         }
     }
 
-
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse> searchProducts(@RequestParam String q, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+        try {
+            List<ProductSearchHitDto> hits = productService.searchProducts(q, page, size);
+            return ResponseEntity.ok(new ApiResponse("Products fetched successfully", hits));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error searching products: ", e.getMessage()));
+        }
+    }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/add")
@@ -127,6 +174,42 @@ public class ProductController {
         }
     }
 
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/multiple-add", params = "mode=bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> ingestProducts(@RequestBody List<AddProductRequest> products, @RequestParam(required = false) Integer chunkSize) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+                ProductIngestSummary summary = productService.ingestProducts(products, chunkSize, result -> {
+                    try {
+                        writer.write(result);
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.write(summary);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String category, @RequestParam(required = false) String brand) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+                productService.exportProducts(category, brand, chunk -> {
+                    try {
+                        writer.writeAll(chunk);
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PutMapping("{id}/update")
     public ResponseEntity<ApiResponse> updateProduct(@PathVariable Long id, @RequestBody UpdateProductRequest productDetails) {
@@ -152,6 +235,20 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse> getFacetCounts() {
+        try {
+            return ResponseEntity.ok(new ApiResponse("Product facets fetched successfully", productService.getFacetCounts()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse("Error fetching product facets: ", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getCacheStats() {
+        return ResponseEntity.ok(new ApiResponse("Product cache stats fetched successfully", productService.getCacheStats()));
+    }
+
     @GetMapping("/count/brand/{brand}/name/{name}")
     public ResponseEntity<ApiResponse> countProductsByBrandAndName(@PathVariable String brand, @PathVariable String name) {
         try {
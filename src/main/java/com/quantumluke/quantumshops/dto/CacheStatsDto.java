@@ -0,0 +1,24 @@
+package com.quantumluke.quantumshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheStatsDto {
+    private long hits;
+    private long misses;
+    private long coalescedLoads;
+    private long evictions;
+    private int size;
+    private double hitRate;
+
+    public static CacheStatsDto of(long hits, long misses, long evictions, int size) {
+        return of(hits, misses, 0, evictions, size);
+    }
+
+    public static CacheStatsDto of(long hits, long misses, long coalescedLoads, long evictions, int size) {
+        long lookups = hits + misses;
+        return new CacheStatsDto(hits, misses, coalescedLoads, evictions, size, lookups == 0 ? 0 : (double) hits / lookups);
+    }
+}
@@ -0,0 +1,13 @@
+package com.quantumluke.quantumshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CartRetryStatsDto {
+    private long updates;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+}
@@ -0,0 +1,17 @@
+package com.quantumluke.quantumshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Product counts per category name, per brand, and per category name then brand.
+ */
+@Data
+@AllArgsConstructor
+public class FacetCountsDto {
+    private Map<String, Long> categories;
+    private Map<String, Long> brands;
+    private Map<String, Map<String, Long>> categoryBrands;
+}
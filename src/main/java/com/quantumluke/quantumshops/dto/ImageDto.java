@@ -1,5 +1,6 @@
 package com.quantumluke.quantumshops.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -7,4 +8,10 @@ public class ImageDto {
     private Long id;
     private String filename;
     private String downloadUrl;
+    private Integer width;
+    private Integer height;
+    private Long fileSize;
+    private String contentHash;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
 }
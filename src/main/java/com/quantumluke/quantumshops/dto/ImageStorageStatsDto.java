@@ -0,0 +1,21 @@
+package com.quantumluke.quantumshops.dto;
+
+import com.quantumluke.quantumshops.repository.StorageTotals;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImageStorageStatsDto {
+    private long images;
+    private long storedContents;
+    private long uploadedBytes;
+    private long storedBytes;
+    private long savedBytes;
+
+    public static ImageStorageStatsDto of(StorageTotals uploaded, StorageTotals stored) {
+        long uploadedBytes = uploaded.getBytes();
+        long storedBytes = stored.getBytes();
+        return new ImageStorageStatsDto(uploaded.getCount(), stored.getCount(), uploadedBytes, storedBytes, uploadedBytes - storedBytes);
+    }
+}
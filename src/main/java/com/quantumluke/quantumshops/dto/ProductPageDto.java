@@ -0,0 +1,17 @@
+package com.quantumluke.quantumshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page of products. {@code nextCursor} is passed back as {@code afterId}
+ * to fetch the following page and is null once the listing is exhausted.
+ */
+@Data
+@AllArgsConstructor
+public class ProductPageDto {
+    private List<ProductDto> products;
+    private Long nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.quantumluke.quantumshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class ProductSearchHitDto {
+    private Long id;
+    private String name;
+    private String brand;
+    private String category;
+    private BigDecimal price;
+    private int score;
+}
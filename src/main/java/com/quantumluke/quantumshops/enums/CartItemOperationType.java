@@ -0,0 +1,7 @@
+package com.quantumluke.quantumshops.enums;
+
+public enum CartItemOperationType {
+    ADD,
+    REMOVE,
+    SET_QUANTITY
+}
@@ -0,0 +1,31 @@
+package com.quantumluke.quantumshops.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+@Getter
+@RequiredArgsConstructor
+public enum ImageVariantFormat {
+    JPEG("jpeg", "jpg", "image/jpeg"),
+    PNG("png", "png", "image/png");
+
+    private final String formatName;
+    private final String extension;
+    private final String contentType;
+
+    public boolean supportsAlpha() {
+        return this == PNG;
+    }
+
+    public static ImageVariantFormat from(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        for (ImageVariantFormat format : values()) {
+            if (format.formatName.equals(normalized) || format.extension.equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported image format: " + name);
+    }
+}
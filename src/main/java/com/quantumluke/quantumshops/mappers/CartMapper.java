@@ -0,0 +1,62 @@
+package com.quantumluke.quantumshops.mappers;
+
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.dto.CartItemDto;
+import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class CartMapper {
+    private final ProductMapper productMapper;
+
+    public CartDto toDto(Cart cart) {
+        CartDto cartDto = new CartDto();
+        cartDto.setId(cart.getId());
+        cartDto.setTotalPrice(cart.getTotalPrice());
+        Set<CartItem> cartItems = cart.getCartItems();
+        if (cartItems != null) {
+            Set<CartItemDto> items = new HashSet<>((int) Math.ceil(cartItems.size() / 0.75));
+            for (CartItem cartItem : cartItems) {
+                items.add(toDto(cartItem));
+            }
+            cartDto.setItems(items);
+        }
+        return cartDto;
+    }
+
+    /**
+     * Returns the product DTOs of the cart's lines, for the caller to attach their images in bulk.
+     */
+    public List<ProductDto> productsOf(CartDto cartDto) {
+        if (cartDto.getItems() == null) {
+            return List.of();
+        }
+        List<ProductDto> products = new ArrayList<>(cartDto.getItems().size());
+        for (CartItemDto item : cartDto.getItems()) {
+            if (item.getProduct() != null) {
+                products.add(item.getProduct());
+            }
+        }
+        return products;
+    }
+
+    public CartItemDto toDto(CartItem cartItem) {
+        CartItemDto cartItemDto = new CartItemDto();
+        cartItemDto.setId(cartItem.getId());
+        cartItemDto.setQuantity(cartItem.getQuantity());
+        cartItemDto.setUnitPrice(cartItem.getUnitPrice());
+        if (cartItem.getProduct() != null) {
+            cartItemDto.setProduct(productMapper.toDto(cartItem.getProduct()));
+        }
+        return cartItemDto;
+    }
+}
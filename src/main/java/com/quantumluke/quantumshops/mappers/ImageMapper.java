@@ -0,0 +1,34 @@
+package com.quantumluke.quantumshops.mappers;
+
+import com.quantumluke.quantumshops.dto.ImageDto;
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.repository.ImageMetadata;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ImageMapper {
+
+    public ImageDto toDto(Image image) {
+        ImageDto imageDto = new ImageDto();
+        imageDto.setId(image.getId());
+        imageDto.setFilename(image.getFilename());
+        imageDto.setDownloadUrl(image.getDownloadUrl());
+        imageDto.setWidth(image.getWidth());
+        imageDto.setHeight(image.getHeight());
+        imageDto.setFileSize(image.getFileSize());
+        imageDto.setContentHash(image.getContentHash());
+        return imageDto;
+    }
+
+    public ImageDto toDto(ImageMetadata image) {
+        ImageDto imageDto = new ImageDto();
+        imageDto.setId(image.getId());
+        imageDto.setFilename(image.getFilename());
+        imageDto.setDownloadUrl(Image.downloadUrlOf(image.getId(), image.getContentHash()));
+        imageDto.setWidth(image.getWidth());
+        imageDto.setHeight(image.getHeight());
+        imageDto.setFileSize(image.getFileSize());
+        imageDto.setContentHash(image.getContentHash());
+        return imageDto;
+    }
+}
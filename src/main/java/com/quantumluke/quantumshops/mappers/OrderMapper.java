@@ -0,0 +1,64 @@
+package com.quantumluke.quantumshops.mappers;
+
+import com.quantumluke.quantumshops.dto.OrderDto;
+import com.quantumluke.quantumshops.dto.OrderItemDto;
+import com.quantumluke.quantumshops.models.Order;
+import com.quantumluke.quantumshops.models.OrderItem;
+import com.quantumluke.quantumshops.models.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class OrderMapper {
+
+    public OrderDto toDto(Order order) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setId(order.getId());
+        if (order.getUser() != null) {
+            orderDto.setUserId(order.getUser().getId());
+        }
+        orderDto.setOrderDate(order.getOrderDate());
+        orderDto.setTotalPrice(order.getOrderTotalPrice());
+        orderDto.setStatus(order.getOrderStatus() == null ? null : order.getOrderStatus().name());
+        orderDto.setOrderItems(toItemDtos(order.getOrderItems()));
+        return orderDto;
+    }
+
+    public OrderItemDto toDto(OrderItem orderItem) {
+        OrderItemDto orderItemDto = new OrderItemDto();
+        Product product = orderItem.getProduct();
+        if (product != null) {
+            orderItemDto.setProductId(product.getId());
+            orderItemDto.setProductName(product.getName());
+            orderItemDto.setProductBrand(product.getBrand());
+        }
+        orderItemDto.setQuantity(orderItem.getQuantity());
+        orderItemDto.setPrice(orderItem.getPricePerUnit());
+        return orderItemDto;
+    }
+
+    public List<OrderDto> toDtos(Collection<Order> orders) {
+        if (orders == null) {
+            return null;
+        }
+        List<OrderDto> orderDtos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderDtos.add(toDto(order));
+        }
+        return orderDtos;
+    }
+
+    private List<OrderItemDto> toItemDtos(Collection<OrderItem> orderItems) {
+        if (orderItems == null) {
+            return null;
+        }
+        List<OrderItemDto> orderItemDtos = new ArrayList<>(orderItems.size());
+        for (OrderItem orderItem : orderItems) {
+            orderItemDtos.add(toDto(orderItem));
+        }
+        return orderItemDtos;
+    }
+}
@@ -0,0 +1,25 @@
+package com.quantumluke.quantumshops.mappers;
+
+import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.models.Product;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the scalar product fields only. Images are attached by the caller, in bulk, so mapping
+ * never touches the lazy {@code Product.image} collection.
+ */
+@Component
+public class ProductMapper {
+
+    public ProductDto toDto(Product product) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(product.getId());
+        productDto.setName(product.getName());
+        productDto.setBrand(product.getBrand());
+        productDto.setPrice(product.getPrice());
+        productDto.setInventory(product.getInventory());
+        productDto.setDescription(product.getDescription());
+        productDto.setCategory(product.getCategory());
+        return productDto;
+    }
+}
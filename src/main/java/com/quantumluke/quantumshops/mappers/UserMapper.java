@@ -0,0 +1,26 @@
+package com.quantumluke.quantumshops.mappers;
+
+import com.quantumluke.quantumshops.dto.UserDto;
+import com.quantumluke.quantumshops.models.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class UserMapper {
+    private final OrderMapper orderMapper;
+    private final CartMapper cartMapper;
+
+    public UserDto toDto(User user) {
+        UserDto userDto = new UserDto();
+        userDto.setId(user.getId());
+        userDto.setFirstName(user.getFirstName());
+        userDto.setLastName(user.getLastName());
+        userDto.setEmail(user.getEmail());
+        userDto.setOrders(orderMapper.toDtos(user.getOrders()));
+        if (user.getCart() != null) {
+            userDto.setCart(cartMapper.toDto(user.getCart()));
+        }
+        return userDto;
+    }
+}
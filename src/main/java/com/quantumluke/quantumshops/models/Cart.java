@@ -1,15 +1,24 @@
 package com.quantumluke.quantumshops.models;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * A user's cart. Items are indexed by product id on first lookup and the total is adjusted by
+ * each line's delta, so changing one line costs the same in a ten-line cart as in a thousand-line
+ * one. Go through {@link #addItem}, {@link #updateItem} and {@link #removeItem} to keep both in step.
+ */
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,34 +31,74 @@ public class Cart {
     private Long id;
     private BigDecimal totalPrice = BigDecimal.ZERO;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<CartItem> cartItems = new HashSet<>();
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, CartItem> itemsByProductId;
 
+    public void setCartItems(Set<CartItem> cartItems) {
+        this.cartItems = cartItems;
+        this.itemsByProductId = null;
+    }
+
+    public CartItem getItem(Long productId) {
+        return itemsByProductId().get(productId);
+    }
 
     public void addItem(CartItem item) {
         this.cartItems.add(item);
         item.setCart(this);
-        updateTotalPrice();
+        itemsByProductId().put(item.getProduct().getId(), item);
+        this.totalPrice = total().add(lineTotal(item));
+    }
+
+    public void updateItem(CartItem item, int quantity, BigDecimal unitPrice) {
+        BigDecimal previous = lineTotal(item);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice);
+        item.setTotalPrice();
+        this.totalPrice = total().subtract(previous).add(lineTotal(item));
     }
 
     public void removeItem(CartItem item) {
-        this.cartItems.remove(item);
+        if (this.cartItems.remove(item)) {
+            itemsByProductId().remove(item.getProduct().getId());
+            this.totalPrice = total().subtract(lineTotal(item));
+        }
         item.setCart(null);
-        updateTotalPrice();
     }
 
-    private void updateTotalPrice() {
-        this.totalPrice = cartItems.stream().map(item ->{
-            BigDecimal unitPrice = item.getUnitPrice();
-            if (unitPrice == null){
-                return BigDecimal.ZERO;
+    private Map<Long, CartItem> itemsByProductId() {
+        if (itemsByProductId == null) {
+            itemsByProductId = new HashMap<>((int) Math.ceil(cartItems.size() / 0.75));
+            for (CartItem item : cartItems) {
+                itemsByProductId.put(item.getProduct().getId(), item);
             }
-            return unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-        }).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+        return itemsByProductId;
+    }
+
+    private BigDecimal total() {
+        return totalPrice == null ? BigDecimal.ZERO : totalPrice;
+    }
+
+    private static BigDecimal lineTotal(CartItem item) {
+        BigDecimal unitPrice = item.getUnitPrice();
+        if (unitPrice == null) {
+            return BigDecimal.ZERO;
+        }
+        return unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
     }
 }
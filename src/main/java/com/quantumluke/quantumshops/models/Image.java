@@ -5,26 +5,53 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
-import java.sql.Blob;
-
+/**
+ * Image metadata. The bytes are kept by the {@link com.quantumluke.quantumshops.services.image.ImageStorage}
+ * under {@link #contentHash} and are only read on download.
+ */
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 public class Image {
+    public static final String DOWNLOAD_URL_PREFIX = "/api/v1/images/image/download/";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String filename;
     private String fileType;
-
-    @Lob
-    private Blob image;
-    private String downloadUrl;
+    @Column(length = 64)
+    private String contentHash;
+    private Long fileSize;
+    /**
+     * Whether this row holds one of the references counted on its content. Rows from before content was
+     * counted do not until the migration counts them, and must not give one back.
+     */
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean referenceCounted;
+    private Integer width;
+    private Integer height;
 
     @ManyToOne
     @JoinColumn(name = "product_id")
     private Product product;
+
+    public String getDownloadUrl() {
+        return downloadUrlOf(id, contentHash);
+    }
+
+    /**
+     * The URL of this exact content: it changes whenever the bytes do, so responses to it never go stale.
+     */
+    public static String downloadUrlOf(Long imageId, String contentHash) {
+        if (imageId == null) {
+            return null;
+        }
+        return contentHash == null ? DOWNLOAD_URL_PREFIX + imageId : DOWNLOAD_URL_PREFIX + imageId + "/" + contentHash;
+    }
 }
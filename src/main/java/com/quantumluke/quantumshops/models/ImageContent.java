@@ -0,0 +1,55 @@
+package com.quantumluke.quantumshops.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.sql.Blob;
+
+/**
+ * One stored copy of image content, shared by every {@link Image} row with the same SHA-256 hash.
+ * The bytes are only kept here by the database storage backend; the filesystem backend keeps them on
+ * disk and uses the row for the reference count alone.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+public class ImageContent implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+    private long fileSize;
+    private int referenceCount;
+
+    @Lob
+    private Blob content;
+
+    @Transient
+    private boolean stored;
+
+    public ImageContent(String contentHash, long fileSize, Blob content) {
+        this.contentHash = contentHash;
+        this.fileSize = fileSize;
+        this.referenceCount = 1;
+        this.content = content;
+    }
+
+    @Override
+    public String getId() {
+        return contentHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
@@ -2,7 +2,28 @@ package com.quantumluke.quantumshops.repository;
 
 import com.quantumluke.quantumshops.models.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Cart findByUserId(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Loads the cart, its items and their products (with category) in one statement.
+     */
+    @Query("select c from Cart c left join fetch c.cartItems i left join fetch i.product p " +
+            "left join fetch p.category where c.id = :id")
+    Optional<Cart> findWithItemsById(@Param("id") Long id);
+
+    @Query("select c from Cart c left join fetch c.cartItems i left join fetch i.product p " +
+            "left join fetch p.category where c.id in :ids")
+    List<Cart> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select c.totalPrice from Cart c where c.id = :id")
+    Optional<BigDecimal> findTotalPriceById(@Param("id") Long id);
+}
@@ -2,9 +2,26 @@ package com.quantumluke.quantumshops.repository;
 
 import com.quantumluke.quantumshops.models.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
   Category findByName(String name);
 
   boolean existsByName(String name);
+
+  List<Category> findByNameIn(Collection<String> names);
+
+  @Query("select c.version from Category c where c.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  @Query("select c.version from Category c where c.name = :name")
+  Optional<Long> findVersionByName(@Param("name") String name);
+
+  @Query("select c.id as id, c.version as version from Category c order by c.id")
+  List<EntityVersion> findAllVersions();
 }
\ No newline at end of file
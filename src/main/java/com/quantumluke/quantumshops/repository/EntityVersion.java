@@ -0,0 +1,6 @@
+package com.quantumluke.quantumshops.repository;
+
+public interface EntityVersion {
+    Long getId();
+    Long getVersion();
+}
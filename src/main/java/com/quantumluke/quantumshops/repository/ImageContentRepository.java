@@ -0,0 +1,30 @@
+package com.quantumluke.quantumshops.repository;
+
+import com.quantumluke.quantumshops.models.ImageContent;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ImageContentRepository extends JpaRepository<ImageContent, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update ImageContent c set c.referenceCount = c.referenceCount + 1 where c.contentHash = :contentHash")
+    int incrementReferences(@Param("contentHash") String contentHash);
+
+    @Transactional
+    @Modifying
+    @Query("update ImageContent c set c.referenceCount = c.referenceCount - 1 " +
+            "where c.contentHash = :contentHash and c.referenceCount > 0")
+    int decrementReferences(@Param("contentHash") String contentHash);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ImageContent c where c.contentHash = :contentHash and c.referenceCount = 0")
+    int deleteUnreferenced(@Param("contentHash") String contentHash);
+
+    @Query("select count(c) as count, coalesce(sum(c.fileSize), 0) as bytes from ImageContent c")
+    StorageTotals sumStored();
+}
@@ -0,0 +1,14 @@
+package com.quantumluke.quantumshops.repository;
+
+/**
+ * Metadata-only view of {@link com.quantumluke.quantumshops.models.Image}; never touches the blob column.
+ */
+public interface ImageMetadata {
+    Long getId();
+    String getFilename();
+    Long getProductId();
+    String getContentHash();
+    Long getFileSize();
+    Integer getWidth();
+    Integer getHeight();
+}
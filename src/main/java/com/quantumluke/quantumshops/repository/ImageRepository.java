@@ -2,9 +2,27 @@ package com.quantumluke.quantumshops.repository;
 
 import com.quantumluke.quantumshops.models.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
-    List<Image> findByProductId(Long id);
-}
\ No newline at end of file
+    String SELECT_METADATA = "select i.id as id, i.filename as filename, i.product.id as productId, " +
+            "i.contentHash as contentHash, i.fileSize as fileSize, i.width as width, i.height as height from Image i ";
+
+    @Query(SELECT_METADATA + "where i.product.id = :productId order by i.id")
+    List<ImageMetadata> findMetadataByProductId(@Param("productId") Long productId);
+
+    @Query(SELECT_METADATA + "where i.id = :id")
+    Optional<ImageMetadata> findMetadataById(@Param("id") Long id);
+
+    @Query("select count(i) as count, coalesce(sum(i.fileSize), 0) as bytes from Image i " +
+            "where i.contentHash is not null")
+    StorageTotals sumUploaded();
+
+    @Query(SELECT_METADATA + "where i.product.id in :productIds order by i.id")
+    List<ImageMetadata> findMetadataByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
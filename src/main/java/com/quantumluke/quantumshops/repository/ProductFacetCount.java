@@ -0,0 +1,7 @@
+package com.quantumluke.quantumshops.repository;
+
+public interface ProductFacetCount {
+    Long getCategoryId();
+    String getBrand();
+    long getProductCount();
+}
@@ -1,22 +1,72 @@
 package com.quantumluke.quantumshops.repository;
 
 import com.quantumluke.quantumshops.models.Product;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-  List<Product> findByCategoryName(String category);
+  List<Product> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 
-  List<Product> findByBrand(String brand);
+  List<Product> findByCategoryNameAndIdGreaterThanOrderByIdAsc(String category, Long afterId, Limit limit);
 
-  List<Product> findByCategoryNameAndBrand(String category, String brand);
+  List<Product> findByCategoryIdAndIdGreaterThanOrderByIdAsc(Long categoryId, Long afterId, Limit limit);
 
-  List<Product> findByName(String name);
+  List<Product> findByBrandAndIdGreaterThanOrderByIdAsc(String brand, Long afterId, Limit limit);
 
-  List<Product> findByBrandAndName(String brand, String name);
+  List<Product> findByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(String category, String brand, Long afterId, Limit limit);
+
+  List<Product> findByNameAndIdGreaterThanOrderByIdAsc(String name, Long afterId, Limit limit);
+
+  List<Product> findByBrandAndNameAndIdGreaterThanOrderByIdAsc(String brand, String name, Long afterId, Limit limit);
+
+  List<EntityVersion> findVersionsByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+  List<EntityVersion> findVersionsByCategoryNameAndIdGreaterThanOrderByIdAsc(String category, Long afterId, Limit limit);
+
+  List<EntityVersion> findVersionsByBrandAndIdGreaterThanOrderByIdAsc(String brand, Long afterId, Limit limit);
+
+  List<EntityVersion> findVersionsByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(String category, String brand, Long afterId, Limit limit);
+
+  List<EntityVersion> findVersionsByNameAndIdGreaterThanOrderByIdAsc(String name, Long afterId, Limit limit);
+
+  List<EntityVersion> findVersionsByBrandAndNameAndIdGreaterThanOrderByIdAsc(String brand, String name, Long afterId, Limit limit);
+
+  @Query("select p.version from Product p where p.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  @Transactional
+  @Modifying
+  @Query("update Product p set p.version = p.version + 1 where p.id = :id")
+  int incrementVersion(@Param("id") Long id);
+
+  @Transactional
+  @Modifying
+  @Query("update Product p set p.version = p.version + 1 where p.category.id = :categoryId")
+  int incrementVersionByCategoryId(@Param("categoryId") Long categoryId);
+
+  // A single update, so concurrent checkouts of a product queue on its row instead of failing the
+  // optimistic version check of a read-modify-write.
+  @Transactional
+  @Modifying
+  @Query("update Product p set p.inventory = p.inventory - :quantity, p.version = p.version + 1 where p.id = :id")
+  int decrementInventory(@Param("id") Long id, @Param("quantity") int quantity);
 
   Long countByBrandAndName(String brand, String name);
 
     boolean existsByNameAndBrand(String name, String brand);
-}
\ No newline at end of file
+
+  @Query("select p.name as name, p.brand as brand from Product p where p.name in :names and p.brand in :brands")
+  List<ProductNameAndBrand> findNameAndBrandIn(@Param("names") Collection<String> names, @Param("brands") Collection<String> brands);
+
+  // Brands are grouped lower-cased, whatever the collation, to match the keys of ProductFacetCounts.Facet.
+  @Query("select c.id as categoryId, lower(p.brand) as brand, count(p) as productCount from Product p left join p.category c group by c.id, lower(p.brand)")
+  List<ProductFacetCount> countByCategoryAndBrand();
+}
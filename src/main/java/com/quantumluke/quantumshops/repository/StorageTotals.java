@@ -0,0 +1,6 @@
+package com.quantumluke.quantumshops.repository;
+
+public interface StorageTotals {
+    Long getCount();
+    Long getBytes();
+}
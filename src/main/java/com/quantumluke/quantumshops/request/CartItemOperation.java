@@ -0,0 +1,19 @@
+package com.quantumluke.quantumshops.request;
+
+import com.quantumluke.quantumshops.enums.CartItemOperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch cart update: add {@code quantity} of a product, remove its line, or set the
+ * line's quantity. {@code quantity} is ignored for {@code REMOVE}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemOperation {
+    private CartItemOperationType type;
+    private Long productId;
+    private int quantity;
+}
@@ -0,0 +1,26 @@
+package com.quantumluke.quantumshops.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one item of a bulk product ingest; {@code index} is the item's position in the request.
+ */
+@Data
+@AllArgsConstructor
+public class ProductIngestResult {
+    private int index;
+    private String name;
+    private String brand;
+    private Long productId;
+    private boolean success;
+    private String error;
+
+    public static ProductIngestResult succeeded(int index, String name, String brand, Long productId) {
+        return new ProductIngestResult(index, name, brand, productId, true, null);
+    }
+
+    public static ProductIngestResult failed(int index, String name, String brand, String error) {
+        return new ProductIngestResult(index, name, brand, null, false, error);
+    }
+}
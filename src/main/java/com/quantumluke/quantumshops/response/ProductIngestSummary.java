@@ -0,0 +1,14 @@
+package com.quantumluke.quantumshops.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductIngestSummary {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private double itemsPerSecond;
+}
@@ -1,87 +1,181 @@
 package com.quantumluke.quantumshops.services.cart;
 
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.dto.CartRetryStatsDto;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.CartMapper;
 import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.models.CartItem;
 import com.quantumluke.quantumshops.models.Product;
-import com.quantumluke.quantumshops.repository.CartItemRepository;
-import com.quantumluke.quantumshops.repository.CartRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.request.CartItemOperation;
 import com.quantumluke.quantumshops.services.product.IProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartItemService implements ICartItemService{
-    private final CartItemRepository cartItemRepository;
-    private final CartRepository cartRepository;
     private final IProductService productService;
-    private final ICartService cartService;
+    private final ProductRepository productRepository;
+    private final CartMapper cartMapper;
+    private final CartStore cartStore;
+    private final CartUpdateRetry cartUpdateRetry;
 
     @Override
     public void addItemToCart(Long cartId, Long productId, int quantity) {
-        Cart cart = cartService.getCartById(cartId);
-        Product product = productService.getProductById(productId);
-        CartItem cartItem = cart.getCartItems().
-                stream().
-                filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElse(new CartItem());
-        if (cartItem.getId() == null) {
-            cartItem.setCart(cart);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            cartItem.setUnitPrice(product.getPrice());
-        } else {
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        }
-        cartItem.setTotalPrice();
-        cart.addItem(cartItem);
-        cartItemRepository.save(cartItem);
-        cartRepository.save(cart);
-
+        cartStore.update(cartId, cart -> {
+            CartItem cartItem = cart.getItem(productId);
+            if (cartItem == null) {
+                cartItem = addNewItem(cart, productService.getProductById(productId), quantity);
+            } else {
+                cart.updateItem(cartItem, cartItem.getQuantity() + quantity, cartItem.getUnitPrice());
+            }
+            return cartItem;
+        });
     }
 
     @Override
     public void removeItemFromCart(Long cartId, Long productId) {
-        Cart cart = cartService.getCartById(cartId);
-        CartItem cartItem = getCartItem(productId, cart);
-        cart.removeItem(cartItem);
-        cartRepository.save(cart);
-
+        cartStore.update(cartId, cart -> {
+            CartItem cartItem = getCartItem(productId, cart);
+            cart.removeItem(cartItem);
+            return cartItem;
+        });
     }
 
 
     @Override
     public void updateItemQuantity(Long cartId, Long productId, int quantity) {
-        Cart cart = cartService.getCartById(cartId);
-        cart.getCartItems()
-                .stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .ifPresentOrElse(cartItem -> {
-                    cartItem.setQuantity(quantity);
-                    cartItem.setUnitPrice(cartItem.getProduct().getPrice());
-                    cartItem.setTotalPrice();
-                }, () -> {
-                    throw new ResourceNotFoundException("Cart item not found for product ID: " + productId);
-                });
-        BigDecimal totalPrice = cart.getCartItems()
-                .stream().map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        cart.setTotalPrice(totalPrice);
-        cartRepository.save(cart);
+        cartStore.update(cartId, cart -> {
+            CartItem cartItem = getCartItem(productId, cart);
+            cart.updateItem(cartItem, quantity, cartItem.getProduct().getPrice());
+            return cartItem;
+        });
+    }
 
+    /**
+     * Applies the operations in order against one load of the cart and writes it once. The whole batch
+     * is checked, and every product it adds as a new line fetched in a single query, before the cart
+     * is changed, so an invalid operation leaves the cart as it was. The returned cart is mapped
+     * once the changes are written.
+     */
+    @Override
+    public CartDto applyOperations(Long cartId, List<CartItemOperation> operations) {
+        CartDto cartDto = cartStore.updateAndRead(cartId, cart -> {
+            Map<Long, Product> products = findProducts(checkOperations(cart, operations));
+            for (CartItemOperation operation : operations) {
+                Long productId = operation.getProductId();
+                int quantity = operation.getQuantity();
+                switch (operation.getType()) {
+                    case ADD -> {
+                        CartItem cartItem = cart.getItem(productId);
+                        if (cartItem == null) {
+                            addNewItem(cart, products.get(productId), quantity);
+                        } else {
+                            cart.updateItem(cartItem, cartItem.getQuantity() + quantity, cartItem.getUnitPrice());
+                        }
+                    }
+                    case REMOVE -> cart.removeItem(getCartItem(productId, cart));
+                    case SET_QUANTITY -> {
+                        CartItem cartItem = getCartItem(productId, cart);
+                        cart.updateItem(cartItem, quantity, cartItem.getProduct().getPrice());
+                    }
+                }
+            }
+        }, cartMapper::toDto);
+        productService.attachImages(cartMapper.productsOf(cartDto));
+        return cartDto;
+    }
+
+    @Override
+    public CartRetryStatsDto getRetryStats() {
+        return cartUpdateRetry.stats();
     }
 
     @Override
     public CartItem getCartItem(Long productId, Cart cart) {
-        return cart.getCartItems()
-                .stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found for product ID: " + productId));
+        CartItem cartItem = cart.getItem(productId);
+        if (cartItem == null) {
+            throw new ResourceNotFoundException("Cart item not found for product ID: " + productId);
+        }
+        return cartItem;
+    }
+
+    /**
+     * Walks the operations without changing the cart, failing on the first one that cannot apply, and
+     * returns the ids of the products that will be added as new lines.
+     */
+    private static Set<Long> checkOperations(Cart cart, List<CartItemOperation> operations) {
+        Set<Long> added = new HashSet<>();
+        Set<Long> removed = new HashSet<>();
+        Set<Long> newProductIds = new HashSet<>();
+        for (CartItemOperation operation : operations) {
+            if (operation.getType() == null || operation.getProductId() == null) {
+                throw new IllegalArgumentException("Each operation needs a type and a productId");
+            }
+            Long productId = operation.getProductId();
+            boolean inCart = added.contains(productId) || (!removed.contains(productId) && cart.getItem(productId) != null);
+            switch (operation.getType()) {
+                case ADD -> {
+                    requirePositive(operation.getQuantity());
+                    if (!inCart) {
+                        added.add(productId);
+                        newProductIds.add(productId);
+                    }
+                }
+                case REMOVE -> {
+                    if (!inCart) {
+                        throw new ResourceNotFoundException("Cart item not found for product ID: " + productId);
+                    }
+                    added.remove(productId);
+                    removed.add(productId);
+                }
+                case SET_QUANTITY -> {
+                    requirePositive(operation.getQuantity());
+                    if (!inCart) {
+                        throw new ResourceNotFoundException("Cart item not found for product ID: " + productId);
+                    }
+                }
+            }
+        }
+        return newProductIds;
+    }
+
+    private Map<Long, Product> findProducts(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+        }
+        return products;
+    }
+
+    private static CartItem addNewItem(Cart cart, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setUnitPrice(product.getPrice());
+        cartItem.setTotalPrice();
+        cart.addItem(cartItem);
+        return cartItem;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
     }
 }
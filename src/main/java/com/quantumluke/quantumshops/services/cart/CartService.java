@@ -1,13 +1,16 @@
 package com.quantumluke.quantumshops.services.cart;
 
+import com.quantumluke.quantumshops.dto.CartDto;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.CartMapper;
 import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.models.User;
 import com.quantumluke.quantumshops.repository.CartItemRepository;
 import com.quantumluke.quantumshops.repository.CartRepository;
-import jakarta.transaction.Transactional;
+import com.quantumluke.quantumshops.services.product.IProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -17,25 +20,38 @@ import java.util.Optional;
 public class CartService implements ICartService{
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartMapper cartMapper;
+    private final CartStore cartStore;
+    private final IProductService productService;
 
+    /**
+     * Loads the cart as stored in the database, with its items and products in a single query,
+     * after writing back any changes the cart store still holds for it.
+     */
     @Override
     public Cart getCartById(Long id) {
-        Cart cart = cartRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + id));
-        BigDecimal totalPrice = cart.getTotalPrice();
-        cart.setTotalPrice(totalPrice);
-        return cartRepository.save(cart);
+        cartStore.flush(id);
+        return load(id);
+    }
+
+    @Override
+    public CartDto getCartDto(Long id) {
+        CartDto cartDto = cartStore.read(id, cartMapper::toDto);
+        productService.attachImages(cartMapper.productsOf(cartDto));
+        return cartDto;
     }
 
     @Override
     public Cart getCartByUserId(Long userId) {
-        return cartRepository.findByUserId(userId);
+        Cart cart = cartRepository.findByUserId(userId);
+        return cart == null ? null : getCartById(cart.getId());
     }
 
     @Transactional
     @Override
     public void clearCart(Long id) {
-        Cart cart = getCartById(id);
+        cartStore.evict(id);
+        Cart cart = load(id);
         cartItemRepository.deleteAllByCartId(id);
         cart.getCartItems().clear();
         cartRepository.deleteById(id);
@@ -44,13 +60,12 @@ public class CartService implements ICartService{
 
     @Override
     public BigDecimal getTotalPrice(Long id) {
-        Cart cart = getCartById(id);
-        return cart.getTotalPrice();
+        return cartStore.getTotalPrice(id);
     }
 
     @Override
     public Cart initializeCart(User user) {
-        return Optional.ofNullable(getCartByUserId(user.getId()))
+        return Optional.ofNullable(cartRepository.findByUserId(user.getId()))
                 .orElseGet(() -> {
                     Cart cart = new Cart();
                     cart.setUser(user);
@@ -58,4 +73,8 @@ public class CartService implements ICartService{
                 });
     }
 
+    private Cart load(Long id) {
+        return cartRepository.findWithItemsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + id));
+    }
 }
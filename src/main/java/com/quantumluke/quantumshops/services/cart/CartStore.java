@@ -0,0 +1,44 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.models.Cart;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Where cart reads and mutations are served from. The backend is chosen with {@code carts.store.type}:
+ * {@code database} (the default) reads and writes every change through JPA, {@code memory} keeps
+ * active carts in memory and writes them back in batches.
+ */
+public interface CartStore {
+
+    <T> T read(Long cartId, Function<Cart, T> reader);
+
+    /**
+     * Applies the mutation to the cart and makes it visible to later reads. The mutation should validate
+     * everything it needs before changing the cart: in memory mode a mutation that throws halfway
+     * cannot be rolled back if the cart has other changes waiting to be written.
+     */
+    <T> T update(Long cartId, Function<Cart, T> mutation);
+
+    /**
+     * Applies the mutation as {@link #update} does, then maps the changed cart with the reader. In
+     * database mode the cart is written first, so lines the mutation added are read with their ids; in
+     * memory mode they have no id until the cart is next written back.
+     */
+    <T> T updateAndRead(Long cartId, Consumer<Cart> mutation, Function<Cart, T> reader);
+
+    BigDecimal getTotalPrice(Long cartId);
+
+    /**
+     * Writes any pending changes to the cart before returning. Joins the caller's transaction when
+     * there is one, so the changes commit or roll back with it.
+     */
+    void flush(Long cartId);
+
+    /**
+     * Forgets the cart, discarding changes not yet written; for carts about to be deleted.
+     */
+    void evict(Long cartId);
+}
@@ -0,0 +1,68 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.dto.CartRetryStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a cart update that lost an optimistic-lock race. Each attempt must be a complete
+ * transaction so it reloads the cart it changes; attempts are separated by a jittered, doubling
+ * backoff so contending requests spread out instead of colliding again in lockstep.
+ */
+@Component
+public class CartUpdateRetry {
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public CartUpdateRetry(@Value("${carts.retry.max-attempts:5}") int maxAttempts,
+                           @Value("${carts.retry.initial-backoff-ms:10}") long initialBackoffMillis,
+                           @Value("${carts.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> update) {
+        updates.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return update.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    throw e;
+                }
+            }
+            retries.incrementAndGet();
+            backOff(attempt);
+        }
+    }
+
+    public CartRetryStatsDto stats() {
+        return new CartRetryStatsDto(updates.get(), conflicts.get(), retries.get(), exhausted.get());
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying cart update", e);
+        }
+    }
+}
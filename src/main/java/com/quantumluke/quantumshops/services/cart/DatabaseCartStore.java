@@ -0,0 +1,75 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serves every cart read and write from the database. Each mutation runs as its own transaction, so
+ * an optimistic-lock conflict on {@code Cart} or {@code CartItem} rolls it back whole and
+ * {@link CartUpdateRetry} starts the next attempt from a fresh load. Reads run in a read-only
+ * transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "carts.store.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+    private final CartRepository cartRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartUpdateRetry cartUpdateRetry;
+
+    @Transactional(readOnly = true)
+    @Override
+    public <T> T read(Long cartId, Function<Cart, T> reader) {
+        return reader.apply(load(cartId));
+    }
+
+    @Override
+    public <T> T update(Long cartId, Function<Cart, T> mutation) {
+        return cartUpdateRetry.execute(() -> transactionTemplate.execute(status -> {
+            Cart cart = load(cartId);
+            T result = mutation.apply(cart);
+            cartRepository.save(cart);
+            return result;
+        }));
+    }
+
+    @Override
+    public <T> T updateAndRead(Long cartId, Consumer<Cart> mutation, Function<Cart, T> reader) {
+        return cartUpdateRetry.execute(() -> transactionTemplate.execute(status -> {
+            Cart cart = load(cartId);
+            mutation.accept(cart);
+            // Read from the saved cart: new lines are merged into copies, and only those get ids.
+            return reader.apply(cartRepository.saveAndFlush(cart));
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BigDecimal getTotalPrice(Long cartId) {
+        return cartRepository.findTotalPriceById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + cartId));
+    }
+
+    @Override
+    public void flush(Long cartId) {
+    }
+
+    @Override
+    public void evict(Long cartId) {
+    }
+
+    private Cart load(Long cartId) {
+        return cartRepository.findWithItemsById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + cartId));
+    }
+}
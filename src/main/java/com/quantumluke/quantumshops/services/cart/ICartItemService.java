@@ -1,12 +1,19 @@
 package com.quantumluke.quantumshops.services.cart;
 
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.dto.CartRetryStatsDto;
 import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.request.CartItemOperation;
+
+import java.util.List;
 
 public interface ICartItemService {
     void addItemToCart(Long cartId, Long productId, int quantity);
     void removeItemFromCart(Long cartId, Long productId);
     void updateItemQuantity(Long cartId, Long productId, int quantity);
+    CartDto applyOperations(Long cartId, List<CartItemOperation> operations);
+    CartRetryStatsDto getRetryStats();
 
     CartItem getCartItem(Long productId, Cart cart);
 }
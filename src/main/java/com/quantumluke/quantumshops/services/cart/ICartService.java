@@ -1,5 +1,6 @@
 package com.quantumluke.quantumshops.services.cart;
 
+import com.quantumluke.quantumshops.dto.CartDto;
 import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.models.User;
 
@@ -7,6 +8,7 @@ import java.math.BigDecimal;
 
 public interface ICartService {
     Cart getCartById(Long id);
+    CartDto getCartDto(Long id);
     Cart getCartByUserId(Long userId);
     void clearCart(Long id);
     BigDecimal getTotalPrice(Long id);
@@ -0,0 +1,340 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps active carts in memory and writes them back behind the requests that change them.
+ * <p>
+ * A cart is loaded from the database on first use and then read and changed in memory, under one of
+ * a fixed set of striped locks. Every {@code carts.store.flush-interval-ms} the carts changed since
+ * their last write are saved in batches of {@code carts.store.flush-batch-size}, one transaction per
+ * batch, and clean carts idle for {@code carts.store.idle-timeout-ms} are dropped. Writes set each
+ * stored line to its in-memory quantity and price, matched by product id, so several changes to a
+ * cart between flushes cost a single write.
+ * <p>
+ * The database stays the source of record: checkout flushes the cart first, shutdown flushes
+ * everything, and after a restart carts are simply loaded again. Changes made since the last flush
+ * are lost if the process dies without shutting down. Only one instance may serve a given cart.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "carts.store.type", havingValue = "memory")
+public class MemoryCartStore implements CartStore {
+    private static final int LOCK_STRIPES = 64;
+
+    private final CartRepository cartRepository;
+    private final TransactionTemplate loadTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int flushBatchSize;
+    private final long idleTimeoutMillis;
+    private final Map<Long, Entry> carts = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final ScheduledExecutorService flusher;
+
+    public MemoryCartStore(CartRepository cartRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${carts.store.flush-interval-ms:1000}") long flushIntervalMillis,
+                           @Value("${carts.store.flush-batch-size:100}") int flushBatchSize,
+                           @Value("${carts.store.idle-timeout-ms:1800000}") long idleTimeoutMillis) {
+        this.cartRepository = cartRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cart-flush-");
+        threadFactory.setDaemon(true);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.flusher.scheduleWithFixedDelay(this::flushChanged, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public <T> T read(Long cartId, Function<Cart, T> reader) {
+        synchronized (lockFor(cartId)) {
+            return reader.apply(entry(cartId).cart);
+        }
+    }
+
+    @Override
+    public <T> T update(Long cartId, Function<Cart, T> mutation) {
+        synchronized (lockFor(cartId)) {
+            Entry entry = entry(cartId);
+            try {
+                T result = mutation.apply(entry.cart);
+                entry.revision++;
+                return result;
+            } catch (RuntimeException e) {
+                if (entry.revision == entry.flushedRevision) {
+                    carts.remove(cartId);
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public <T> T updateAndRead(Long cartId, Consumer<Cart> mutation, Function<Cart, T> reader) {
+        return update(cartId, cart -> {
+            mutation.accept(cart);
+            return reader.apply(cart);
+        });
+    }
+
+    @Override
+    public BigDecimal getTotalPrice(Long cartId) {
+        return read(cartId, Cart::getTotalPrice);
+    }
+
+    @Override
+    public void flush(Long cartId) {
+        flush(List.of(cartId), true);
+    }
+
+    @Override
+    public void evict(Long cartId) {
+        synchronized (lockFor(cartId)) {
+            carts.remove(cartId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flushChanged();
+    }
+
+    void flushChanged() {
+        List<Long> changed = new ArrayList<>();
+        carts.forEach((cartId, entry) -> {
+            if (entry.revision != entry.flushedRevision) {
+                changed.add(cartId);
+            }
+        });
+        for (int from = 0; from < changed.size(); from += flushBatchSize) {
+            try {
+                flush(changed.subList(from, Math.min(from + flushBatchSize, changed.size())), false);
+            } catch (RuntimeException e) {
+                log.warn("Failed to write back {} carts, will retry: {}", Math.min(flushBatchSize, changed.size() - from), e.getMessage());
+            }
+        }
+        evictIdle();
+    }
+
+    /**
+     * Writes the given carts if they changed since their last write. A snapshot marks its cart as in
+     * flight until the write commits or rolls back, so no other thread writes the same changes again;
+     * the background flusher skips such carts, while a caller that needs the cart in the database
+     * waits for the write in flight to finish first. A transaction that already wrote the cart may
+     * write its later changes too.
+     */
+    private void flush(List<Long> cartIds, boolean awaitInFlight) {
+        Map<Long, Snapshot> snapshots = new HashMap<>();
+        for (Long cartId : cartIds) {
+            Object lock = lockFor(cartId);
+            synchronized (lock) {
+                Entry entry = carts.get(cartId);
+                while (awaitInFlight && entry != null && entry.inFlightElsewhere()) {
+                    awaitWrite(lock);
+                    entry = carts.get(cartId);
+                }
+                if (entry != null && !entry.inFlightElsewhere() && entry.revision != entry.flushedRevision) {
+                    entry.writer = Thread.currentThread();
+                    snapshots.put(cartId, Snapshot.of(entry));
+                }
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            Map<Long, Cart> written;
+            try {
+                written = write(snapshots);
+            } catch (RuntimeException e) {
+                finishWrite(snapshots.values(), null, false);
+                throw e;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finishWrite(snapshots.values(), status == STATUS_COMMITTED ? written : null, false);
+                }
+            });
+        } else {
+            Map<Long, Cart> written = null;
+            try {
+                written = writeTransaction.execute(status -> write(snapshots));
+            } finally {
+                finishWrite(snapshots.values(), written, true);
+            }
+        }
+    }
+
+    private static void awaitWrite(Object lock) {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a cart to be written", e);
+        }
+    }
+
+    /**
+     * Clears the in-flight mark of each snapshot's cart and, when {@code written} is given, records
+     * which revision is now in the database. A cart written in a transaction of its own is also
+     * swapped for the saved copy, which has ids for its new lines, unless it changed again in the
+     * meantime. Without {@code written} the write was lost and the cart stays dirty.
+     */
+    private void finishWrite(Collection<Snapshot> snapshots, Map<Long, Cart> written, boolean replace) {
+        for (Snapshot snapshot : snapshots) {
+            Object lock = lockFor(snapshot.cartId());
+            synchronized (lock) {
+                Entry entry = snapshot.entry();
+                entry.writer = null;
+                lock.notifyAll();
+                if (written == null || carts.get(snapshot.cartId()) != entry) {
+                    continue;
+                }
+                Cart cart = written.get(snapshot.cartId());
+                if (cart == null) {
+                    carts.remove(snapshot.cartId());
+                    continue;
+                }
+                entry.flushedRevision = Math.max(entry.flushedRevision, snapshot.revision());
+                if (replace && entry.revision == snapshot.revision()) {
+                    entry.cart = cart;
+                }
+            }
+        }
+        if (written != null) {
+            log.debug("Wrote back {} carts", written.size());
+        }
+    }
+
+    /**
+     * Brings the stored carts in line with the snapshots. The carts are managed, so the changes and
+     * new lines are written on commit; saving them would merge the new lines into copies and leave
+     * the carts' item index pointing at the originals.
+     */
+    private Map<Long, Cart> write(Map<Long, Snapshot> snapshots) {
+        Map<Long, Cart> written = new HashMap<>();
+        for (Cart cart : cartRepository.findWithItemsByIdIn(snapshots.keySet())) {
+            Snapshot snapshot = snapshots.get(cart.getId());
+            for (CartItem item : new ArrayList<>(cart.getCartItems())) {
+                Line line = snapshot.lines().get(item.getProduct().getId());
+                if (line == null) {
+                    cart.removeItem(item);
+                } else if (item.getQuantity() != line.quantity() || !samePrice(item.getUnitPrice(), line.unitPrice())) {
+                    cart.updateItem(item, line.quantity(), line.unitPrice());
+                }
+            }
+            snapshot.lines().forEach((productId, line) -> {
+                if (cart.getItem(productId) == null) {
+                    CartItem item = new CartItem();
+                    item.setProduct(line.product());
+                    item.setQuantity(line.quantity());
+                    item.setUnitPrice(line.unitPrice());
+                    item.setTotalPrice();
+                    cart.addItem(item);
+                }
+            });
+            cart.setTotalPrice(snapshot.totalPrice());
+            written.put(cart.getId(), cart);
+        }
+        return written;
+    }
+
+    private static boolean samePrice(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (Long cartId : new ArrayList<>(carts.keySet())) {
+            synchronized (lockFor(cartId)) {
+                Entry entry = carts.get(cartId);
+                if (entry != null && entry.revision == entry.flushedRevision && entry.lastAccess < cutoff) {
+                    carts.remove(cartId);
+                }
+            }
+        }
+    }
+
+    private Entry entry(Long cartId) {
+        Entry entry = carts.get(cartId);
+        if (entry == null) {
+            Cart cart = loadTransaction.execute(status -> cartRepository.findWithItemsById(cartId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + cartId));
+            entry = new Entry(cart);
+            carts.put(cartId, entry);
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry;
+    }
+
+    private Object lockFor(Long cartId) {
+        return locks[Math.floorMod(cartId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static final class Entry {
+        private Cart cart;
+        private long revision;
+        private long flushedRevision;
+        private Thread writer;
+        private long lastAccess;
+
+        private Entry(Cart cart) {
+            this.cart = cart;
+        }
+
+        private boolean inFlightElsewhere() {
+            return writer != null && writer != Thread.currentThread();
+        }
+    }
+
+    private record Line(Product product, int quantity, BigDecimal unitPrice) {
+    }
+
+    private record Snapshot(Long cartId, Entry entry, long revision, BigDecimal totalPrice, Map<Long, Line> lines) {
+        static Snapshot of(Entry entry) {
+            Map<Long, Line> lines = new HashMap<>();
+            for (CartItem item : entry.cart.getCartItems()) {
+                lines.put(item.getProduct().getId(), new Line(item.getProduct(), item.getQuantity(), item.getUnitPrice()));
+            }
+            return new Snapshot(entry.cart.getId(), entry, entry.revision, entry.cart.getTotalPrice(), lines);
+        }
+    }
+}
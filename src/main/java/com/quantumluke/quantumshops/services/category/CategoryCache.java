@@ -0,0 +1,92 @@
+package com.quantumluke.quantumshops.services.category;
+
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
+import com.quantumluke.quantumshops.models.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of categories, addressable by id and by name.
+ * <p>
+ * Entries are detached snapshots holding the id, name and version, without the products; the version
+ * keeps an update of a cached category under optimistic locking. Every lookup hands out a fresh copy
+ * so callers can modify what they get back without corrupting the cache. Names are matched
+ * case-insensitively, as MySQL does for {@code findByName}.
+ */
+@Component
+public class CategoryCache {
+    private final int maxSize;
+    private final LinkedHashMap<Long, Category> categoriesById;
+    private final Map<String, Long> idsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CategoryCache(@Value("${categories.cache.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.categoriesById = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Category> eldest) {
+                if (size() <= CategoryCache.this.maxSize) {
+                    return false;
+                }
+                idsByName.remove(eldest.getValue().getName());
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public synchronized Optional<Category> getById(Long id) {
+        return record(categoriesById.get(id));
+    }
+
+    public synchronized Optional<Category> getByName(String name) {
+        Long id = name == null ? null : idsByName.get(name);
+        return record(id == null ? null : categoriesById.get(id));
+    }
+
+    public synchronized void put(Category category) {
+        if (category == null || category.getId() == null || category.getName() == null) {
+            return;
+        }
+        evict(category.getId());
+        categoriesById.put(category.getId(), snapshot(category));
+        idsByName.put(category.getName(), category.getId());
+    }
+
+    public synchronized void evict(Long id) {
+        Category removed = categoriesById.remove(id);
+        if (removed != null) {
+            idsByName.remove(removed.getName());
+        }
+    }
+
+    public synchronized void clear() {
+        categoriesById.clear();
+        idsByName.clear();
+    }
+
+    public synchronized CacheStatsDto stats() {
+        return CacheStatsDto.of(hits.get(), misses.get(), evictions.get(), categoriesById.size());
+    }
+
+    private Optional<Category> record(Category cached) {
+        if (cached == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(snapshot(cached));
+    }
+
+    private static Category snapshot(Category category) {
+        return new Category(category.getId(), category.getName(), category.getVersion(), null);
+    }
+}
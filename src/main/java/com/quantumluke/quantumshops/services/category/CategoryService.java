@@ -1,9 +1,14 @@
 package com.quantumluke.quantumshops.services.category;
 
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
 import com.quantumluke.quantumshops.exceptions.AlreadyExistsException;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
 import com.quantumluke.quantumshops.models.Category;
 import com.quantumluke.quantumshops.repository.CategoryRepository;
+import com.quantumluke.quantumshops.repository.EntityVersion;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.services.product.ProductCache;
+import com.quantumluke.quantumshops.services.product.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,21 +19,48 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CategoryService implements ICategoryService{
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
 
     @Override
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        return categoryCache.getById(id)
+                .orElseGet(() -> {
+                    Category category = categoryRepository.findById(id)
+                            .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+                    categoryCache.put(category);
+                    return category;
+                });
     }
 
     @Override
     public Category getCategoryByName(String name) {
-        return categoryRepository.findByName(name);
+        return categoryCache.getByName(name)
+                .orElseGet(() -> {
+                    Category category = categoryRepository.findByName(name);
+                    categoryCache.put(category);
+                    return category;
+                });
+    }
+
+    @Override
+    public Long getCategoryVersion(Long id) {
+        return categoryRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+    }
+
+    @Override
+    public List<EntityVersion> getAllCategoryVersions() {
+        return categoryRepository.findAllVersions();
     }
 
     @Override
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        List<Category> categories = categoryRepository.findAll();
+        categories.forEach(categoryCache::put);
+        return categories;
     }
 
     @Override
@@ -37,10 +69,12 @@ public class CategoryService implements ICategoryService{
             throw new AlreadyExistsException("Category with name '" + category.getName() + "' already exists");
         }
 
-        return Optional.of(category).filter(newCategory ->
+        Category savedCategory = Optional.of(category).filter(newCategory ->
                         newCategory.getName() != null && !newCategory.getName().isEmpty())
                 .map(categoryRepository::save)
                 .orElseThrow(() -> new IllegalArgumentException("Category name cannot be null or empty"));
+        categoryCache.put(savedCategory);
+        return savedCategory;
     }
 
     @Override
@@ -48,7 +82,15 @@ public class CategoryService implements ICategoryService{
         return Optional.ofNullable(getCategoryById(id))
                 .map(existingCategory -> {
                     existingCategory.setName(category.getName());
-                    return categoryRepository.save(existingCategory);
+                    categoryCache.evict(id);
+                    Category savedCategory = categoryRepository.save(existingCategory);
+                    categoryCache.put(savedCategory);
+                    // Products embed the category name, so their versions, cached copies and search
+                    // entries move with it.
+                    productRepository.incrementVersionByCategoryId(id);
+                    productCache.clear();
+                    searchIndex.reindexCategory(id);
+                    return savedCategory;
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
     }
@@ -57,8 +99,16 @@ public class CategoryService implements ICategoryService{
     public void deleteCategory(Long id) {
         categoryRepository.findById(id)
                 .ifPresentOrElse(
-                        categoryRepository::delete,
+                        category -> {
+                            categoryCache.evict(id);
+                            categoryRepository.delete(category);
+                        },
                         () -> { throw new ResourceNotFoundException("Category not found with id: " + id); }
                 );
     }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        return categoryCache.stats();
+    }
 }
@@ -1,14 +1,19 @@
 package com.quantumluke.quantumshops.services.category;
 
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
 import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.repository.EntityVersion;
 
 import java.util.List;
 
 public interface ICategoryService {
     Category getCategoryById(Long id);
     Category getCategoryByName(String name);
+    Long getCategoryVersion(Long id);
+    List<EntityVersion> getAllCategoryVersions();
     List<Category> getAllCategories();
     Category addCategory(Category category);
     Category updateCategory(Category category, Long id);
     void deleteCategory(Long id);
+    CacheStatsDto getCacheStats();
 }
@@ -0,0 +1,86 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Keeps image bytes in the database, one {@link ImageContent} row per distinct content. Uploads are
+ * spooled to a temporary file and bound to the insert as a stream, so the application never holds a
+ * whole image in memory. The blob is only read here, on download.
+ */
+@Component
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseImageStorage extends ReferenceCountedImageStorage {
+
+    public DatabaseImageStorage(@Value("${images.storage.spool-dir:${java.io.tmpdir}}") String spool,
+                                ImageContentRepository imageContentRepository,
+                                LegacyImageColumn legacyImageColumn) throws IOException {
+        super(imageContentRepository, legacyImageColumn, Files.createDirectories(Path.of(spool)));
+    }
+
+    @Override
+    protected void saveContent(SpooledContent spooled) throws IOException {
+        try (InputStream content = Files.newInputStream(spooled.file())) {
+            // Flushed here: inside a caller's transaction the insert would otherwise run after the stream is closed.
+            imageContentRepository.saveAndFlush(new ImageContent(spooled.contentHash(), spooled.size(),
+                    BlobProxy.generateProxy(content, spooled.size())));
+        }
+    }
+
+    @Override
+    protected boolean transferContent(String contentHash, long position, long count, WritableByteChannel target) throws IOException {
+        Optional<Blob> blob = blobOf(contentHash);
+        if (blob.isEmpty()) {
+            return false;
+        }
+        transferBlob(blob.get(), position, count, target);
+        return true;
+    }
+
+    @Override
+    protected InputStream openContent(String contentHash) throws IOException {
+        Optional<Blob> blob = blobOf(contentHash);
+        if (blob.isEmpty()) {
+            return null;
+        }
+        try {
+            return blob.get().getBinaryStream();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    protected void deleteContent(String contentHash) {
+        // The bytes were part of the deleted row.
+    }
+
+    private Optional<Blob> blobOf(String contentHash) {
+        return imageContentRepository.findById(contentHash).map(ImageContent::getContent);
+    }
+
+    static void transferBlob(Blob blob, long position, long count, WritableByteChannel target) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        try (InputStream content = blob.getBinaryStream(position + 1, count)) {
+            content.transferTo(Channels.newOutputStream(target));
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps image bytes on local disk at {@code <root>/<hash[0..2]>/<hash[2..4]>/<hash>}, where the hash is
+ * the SHA-256 of the content. Uploads are spooled to a temporary file while hashing and then moved into
+ * place, so a partially written file is never visible. Identical content is stored once and the file is
+ * deleted with its last reference. The root must not be shared with another instance.
+ * <p>
+ * Rows that still carry their bytes in the legacy blob column are served from it until they are moved
+ * out with the {@code --migrate-images} command (see {@link ImageStorageMigration}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "images.storage.type", havingValue = "filesystem")
+public class FilesystemImageStorage extends ReferenceCountedImageStorage {
+    private final Path root;
+
+    public FilesystemImageStorage(@Value("${images.storage.root:images}") String root,
+                                  ImageContentRepository imageContentRepository,
+                                  LegacyImageColumn legacyImageColumn) throws IOException {
+        super(imageContentRepository, legacyImageColumn, Files.createDirectories(Path.of(root).toAbsolutePath().normalize().resolve("tmp")));
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        log.info("Storing images under {}", this.root);
+    }
+
+    @Override
+    protected void saveContent(SpooledContent spooled) throws IOException {
+        Path target = pathOf(spooled.contentHash());
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Files.move(spooled.file(), target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        imageContentRepository.save(new ImageContent(spooled.contentHash(), spooled.size(), null));
+    }
+
+    @Override
+    protected void deleteContent(String contentHash) throws IOException {
+        Files.deleteIfExists(pathOf(contentHash));
+    }
+
+    @Override
+    protected boolean transferContent(String contentHash, long position, long count, WritableByteChannel target) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(pathOf(contentHash), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (channel) {
+            long end = position + count;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0 && position >= channel.size()) {
+                    throw new EOFException("Stored content " + contentHash + " is shorter than expected");
+                }
+                position += transferred;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected InputStream openContent(String contentHash) throws IOException {
+        try {
+            return Files.newInputStream(pathOf(contentHash));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    Path pathOf(String contentHash) {
+        return root.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+    }
+}
@@ -1,15 +1,29 @@
 package com.quantumluke.quantumshops.services.image;
 
 
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
 import com.quantumluke.quantumshops.dto.ImageDto;
+import com.quantumluke.quantumshops.dto.ImageStorageStatsDto;
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
 import com.quantumluke.quantumshops.models.Image;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 public interface IImageService {
     Image getImageById(Long id);
+    List<ImageDto> getImagesByProductId(Long productId);
+    String getImageContentHash(Long imageId);
     void deleteImageById(Long id);
     List<ImageDto> saveImages(List<MultipartFile> files, Long productId);
     Image updateImage(MultipartFile file, Long imageId);
+    long getImageSize(Image image) throws IOException;
+    void transferImage(Image image, long position, long count, WritableByteChannel target) throws IOException;
+    void writeImageBundle(List<Long> productIds, OutputStream out) throws IOException;
+    ImageVariant getImageVariant(Long imageId, String contentHash, int width, ImageVariantFormat format);
+    CacheStatsDto getVariantCacheStats();
+    ImageStorageStatsDto getStorageStats();
 }
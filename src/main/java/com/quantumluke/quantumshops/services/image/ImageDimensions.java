@@ -0,0 +1,38 @@
+package com.quantumluke.quantumshops.services.image;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Pixel dimensions of an image, read from its header without decoding any pixels. Only the bytes up to
+ * the header are consumed, and only those are buffered.
+ */
+public record ImageDimensions(int width, int height) {
+
+    /**
+     * Returns {@code null} if the content is not in a format ImageIO recognises or its header is corrupt.
+     */
+    static ImageDimensions read(InputStream content) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new ImageDimensions(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IIOException e) {
+            return null;
+        }
+    }
+}
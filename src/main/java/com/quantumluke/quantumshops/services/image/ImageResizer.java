@@ -0,0 +1,111 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Scales images down to a requested width, keeping the aspect ratio. Images are never scaled up.
+ * <p>
+ * The dimensions are read from the header before anything is decoded, so oversized images are rejected
+ * up front, and large reductions decode a subsampled raster rather than the full one.
+ */
+@Component
+public class ImageResizer {
+    static final long MAX_SOURCE_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    public byte[] resize(InputStream original, int width, ImageVariantFormat format) throws IOException {
+        BufferedImage scaled;
+        try (ImageInputStream input = ImageIO.createImageInputStream(original)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Image content is not in a readable format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > MAX_SOURCE_PIXELS) {
+                    throw new IllegalArgumentException("Image is too large to resize: " + sourceWidth + "x" + sourceHeight);
+                }
+                int targetWidth = Math.min(width, sourceWidth);
+                int targetHeight = Math.max(1, (int) Math.round((double) sourceHeight * targetWidth / sourceWidth));
+
+                // Keep at least twice the target resolution so the final passes still have pixels to average.
+                int subsampling = Math.max(1, sourceWidth / (targetWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                scaled = scale(reader.read(0, param), targetWidth, targetHeight, format.supportsAlpha());
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        write(scaled, format, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Halves the image until it reaches the target size; a single bilinear pass over a large reduction
+     * skips most source pixels and aliases badly.
+     */
+    private static BufferedImage scale(BufferedImage source, int targetWidth, int targetHeight, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static void write(BufferedImage image, ImageVariantFormat format, ByteArrayOutputStream output) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format.getFormatName()).next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format == ImageVariantFormat.JPEG) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
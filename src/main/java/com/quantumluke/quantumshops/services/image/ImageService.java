@@ -1,26 +1,53 @@
 package com.quantumluke.quantumshops.services.image;
 
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
 import com.quantumluke.quantumshops.dto.ImageDto;
+import com.quantumluke.quantumshops.dto.ImageStorageStatsDto;
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.ImageMapper;
 import com.quantumluke.quantumshops.models.Image;
 import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import com.quantumluke.quantumshops.repository.ImageMetadata;
 import com.quantumluke.quantumshops.repository.ImageRepository;
 import com.quantumluke.quantumshops.services.product.IProductService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.sql.rowset.serial.SerialBlob;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ImageService implements IImageService{
+    private static final int BUNDLE_BATCH_SIZE = 100;
+
     private final ImageRepository imageRepository;
+    private final ImageContentRepository imageContentRepository;
     private final IProductService productService;
+    private final ImageMapper imageMapper;
+    private final ImageStorage imageStorage;
+    private final ImageResizer imageResizer;
+    private final ImageVariantCache variantCache;
+    private final ImageUploadWorkers uploadWorkers;
+    @Value("${images.variants.max-width:2048}")
+    private int maxVariantWidth;
 
     @Override
     public Image getImageById(Long id) {
@@ -28,10 +55,27 @@ public class ImageService implements IImageService{
                 .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + id));
     }
 
+    @Override
+    public List<ImageDto> getImagesByProductId(Long productId) {
+        return imageRepository.findMetadataByProductId(productId).stream().map(imageMapper::toDto).toList();
+    }
+
+    @Override
+    public String getImageContentHash(Long imageId) {
+        return imageRepository.findMetadataById(imageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId))
+                .getContentHash();
+    }
+
     @Override
     public void deleteImageById(Long id) {
         imageRepository.findById(id).ifPresentOrElse(
-                imageRepository::delete,
+                image -> {
+                    imageRepository.delete(image);
+                    variantCache.evict(id);
+                    release(image);
+                    productService.bumpProductVersion(image.getProduct().getId());
+                },
                 () -> { throw new ResourceNotFoundException("Image not found with id: " + id); }
         );
     }
@@ -39,49 +83,168 @@ public class ImageService implements IImageService{
     @Override
     public List<ImageDto> saveImages(List<MultipartFile> files, Long productId) {
         Product product = productService.getProductById(productId);
-        List<ImageDto> savedImageDtos = new ArrayList<>();
+        List<CompletableFuture<ImageDto>> uploads = new ArrayList<>(files.size());
         for (MultipartFile file : files) {
-            try {
-                Image image = new Image();
-                image.setFilename(file.getOriginalFilename());
-                image.setFileType(file.getContentType());
-                image.setImage(new SerialBlob(file.getBytes()));
-                image.setProduct(product);
-
-                String buildUrl = "/api/v1/images/image/download/";
-
-                String downloadUrl = buildUrl + image.getId();
-                image.setDownloadUrl(downloadUrl);
-
-                Image savedImage = imageRepository.save(image);
-                savedImage.setDownloadUrl(buildUrl + savedImage.getId());
-                imageRepository.save(savedImage);
-
-                ImageDto imageDto = new ImageDto();
-                imageDto.setId(savedImage.getId());
-                imageDto.setFilename(savedImage.getFilename());
-                imageDto.setDownloadUrl(savedImage.getDownloadUrl());
-
-                savedImageDtos.add(imageDto);
-            } catch (IOException | SQLException e) {
-                throw new RuntimeException(e.getMessage());
-            }
+            uploads.add(uploadWorkers.submit(() -> saveImage(file, product))
+                    .exceptionally(e -> failedUpload(file, e instanceof CompletionException ? e.getCause() : e)));
+        }
+        List<ImageDto> savedImageDtos = uploads.stream().map(CompletableFuture::join).toList();
+        if (savedImageDtos.stream().anyMatch(imageDto -> imageDto.getError() == null)) {
+            productService.bumpProductVersion(productId);
         }
         return savedImageDtos;
     }
 
+    /**
+     * Stores and inserts one file of an upload. Runs on an upload worker, so the content reference and
+     * the image row each commit on their own and a failure here leaves the other files unaffected.
+     */
+    private ImageDto saveImage(MultipartFile file, Product product) {
+        Image image = new Image();
+        image.setFilename(file.getOriginalFilename());
+        image.setFileType(file.getContentType());
+        image.setProduct(product);
+        store(image, file);
+        return imageMapper.toDto(save(image));
+    }
+
+    private ImageDto failedUpload(MultipartFile file, Throwable e) {
+        log.warn("Failed to upload image {}", file.getOriginalFilename(), e);
+        ImageDto imageDto = new ImageDto();
+        imageDto.setFilename(file.getOriginalFilename());
+        imageDto.setError(e.getMessage());
+        return imageDto;
+    }
+
     @Override
     public Image updateImage(MultipartFile file, Long imageId) {
         Image image = getImageById(imageId);
+        Image previous = new Image();
+        previous.setContentHash(image.getContentHash());
+        previous.setReferenceCounted(image.isReferenceCounted());
 
-        try {
-            image.setFilename(file.getOriginalFilename());
-            image.setImage(new SerialBlob(file.getBytes()));
-            imageRepository.save(image);
-        } catch (IOException | SQLException e) {
-            throw new RuntimeException(e.getMessage());
+        image.setFilename(file.getOriginalFilename());
+        image.setFileType(file.getContentType());
+        store(image, file);
+        save(image);
+        variantCache.evict(imageId);
+        release(previous);
+        productService.bumpProductVersion(image.getProduct().getId());
+        return image;
+    }
+
+    @Override
+    public long getImageSize(Image image) throws IOException {
+        return imageStorage.size(image);
+    }
+
+    @Override
+    public void transferImage(Image image, long position, long count, WritableByteChannel target) throws IOException {
+        imageStorage.transferTo(image, position, count, target);
+    }
+
+    /**
+     * Writes the images of the given products as a ZIP, one entry per image under
+     * {@code product-<id>/}. Metadata is fetched a batch of products at a time and each image is copied
+     * through the storage's fixed-size transfer buffer, so memory use does not grow with the bundle.
+     * Entries are stored without compression; image formats are compressed already.
+     */
+    @Override
+    public void writeImageBundle(List<Long> productIds, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        WritableByteChannel entryChannel = Channels.newChannel(zip);
+        for (int from = 0; from < productIds.size(); from += BUNDLE_BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + BUNDLE_BATCH_SIZE, productIds.size()));
+            for (ImageMetadata metadata : imageRepository.findMetadataByProductIdIn(batch)) {
+                zip.putNextEntry(new ZipEntry(bundleEntryName(metadata)));
+                imageStorage.transferTo(imageOf(metadata), entryChannel);
+                zip.closeEntry();
+            }
         }
+        zip.finish();
+    }
 
+    private static String bundleEntryName(ImageMetadata metadata) {
+        String filename = metadata.getFilename() == null ? "image" : metadata.getFilename().replaceAll("[/\\\\]", "_");
+        return "product-" + metadata.getProductId() + "/" + metadata.getId() + "-" + filename;
+    }
+
+    private static Image imageOf(ImageMetadata metadata) {
+        Image image = new Image();
+        image.setId(metadata.getId());
+        image.setContentHash(metadata.getContentHash());
+        image.setFileSize(metadata.getFileSize());
         return image;
     }
+
+    /**
+     * Returns the variant of the given content of the image. The content is read by its hash, so the
+     * variant matches the hash even if the image is replaced meanwhile.
+     */
+    @Override
+    public ImageVariant getImageVariant(Long imageId, String contentHash, int width, ImageVariantFormat format) {
+        if (width < 1 || width > maxVariantWidth) {
+            throw new IllegalArgumentException("Width must be between 1 and " + maxVariantWidth);
+        }
+        byte[] content = variantCache.get(new ImageVariantKey(imageId, contentHash, width, format), () -> {
+            // Read the requested content, not whatever the image holds by now.
+            Image image = new Image();
+            image.setId(getImageById(imageId).getId());
+            image.setContentHash(contentHash);
+            try (InputStream original = imageStorage.openStream(image)) {
+                return imageResizer.resize(original, width, format);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return new ImageVariant(content, format.getContentType());
+    }
+
+    @Override
+    public CacheStatsDto getVariantCacheStats() {
+        return variantCache.stats();
+    }
+
+    @Override
+    public ImageStorageStatsDto getStorageStats() {
+        return ImageStorageStatsDto.of(imageRepository.sumUploaded(), imageContentRepository.sumStored());
+    }
+
+    /**
+     * Records the dimensions from the image header, then stores the content, which sets its size and
+     * checksum. Non-image uploads are stored without dimensions.
+     */
+    private void store(Image image, MultipartFile file) {
+        try {
+            ImageDimensions dimensions;
+            try (InputStream header = file.getInputStream()) {
+                dimensions = ImageDimensions.read(header);
+            }
+            image.setWidth(dimensions == null ? null : dimensions.width());
+            image.setHeight(dimensions == null ? null : dimensions.height());
+            try (InputStream content = file.getInputStream()) {
+                imageStorage.store(image, content);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Image save(Image image) {
+        try {
+            return imageRepository.save(image);
+        } catch (RuntimeException e) {
+            release(image);
+            throw e;
+        }
+    }
+
+    private void release(Image image) {
+        try {
+            imageStorage.release(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
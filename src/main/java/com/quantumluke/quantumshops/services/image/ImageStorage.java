@@ -0,0 +1,43 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Where image bytes live. The backend is chosen with {@code images.storage.type}: {@code database}
+ * (the default) keeps them in the database, {@code filesystem} keeps them on disk. Both store each
+ * distinct content once, keyed by its SHA-256 hash.
+ */
+public interface ImageStorage {
+
+    /**
+     * Stores the content, or adds a reference to it if identical content is already stored, and records
+     * its SHA-256 hash and size on the image. If the image row then fails to save, the reference must be
+     * given back with {@link #release(Image)}.
+     */
+    void store(Image image, InputStream content) throws IOException;
+
+    long size(Image image) throws IOException;
+
+    /**
+     * Writes {@code count} bytes of the image starting at {@code position} without loading the whole
+     * content into memory.
+     */
+    void transferTo(Image image, long position, long count, WritableByteChannel target) throws IOException;
+
+    InputStream openStream(Image image) throws IOException;
+
+    default void transferTo(Image image, WritableByteChannel target) throws IOException {
+        transferTo(image, 0, size(image), target);
+    }
+
+    /**
+     * Drops the reference of an image whose row has already been deleted or replaced; the bytes are
+     * removed with the last one. Images not {@link Image#isReferenceCounted() counted} hold none and are
+     * ignored.
+     */
+    void release(Image image) throws IOException;
+}
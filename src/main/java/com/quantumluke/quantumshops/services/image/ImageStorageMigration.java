@@ -0,0 +1,110 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.Image;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves image bytes out of the legacy blob column of the image table into the configured
+ * {@link ImageStorage}.
+ * <p>
+ * This is a one-off command: running the application with {@code --migrate-images} first creates the
+ * missing reference counts for images stored before identical content was shared, then migrates legacy
+ * rows one at a time. The content is stored first and the row is pointed at it and its blob cleared
+ * afterwards, so an interrupted run can simply be started again. The application exits when done.
+ * Until it has run, uncounted images are served as before but never release their content.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageStorageMigration implements ApplicationRunner {
+    private static final String OPTION = "migrate-images";
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageStorage imageStorage;
+    private final LegacyImageColumn legacyImageColumn;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        log.info("Counted references for {} stored image contents", backfillReferenceCounts());
+        if (legacyImageColumn.isPresent()) {
+            log.info("Moved {} images out of the legacy image column", migrate());
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    /**
+     * Counts the references of hashed rows that were stored before content was counted and flags them
+     * as counted. Rows still carrying legacy bytes are left to {@link #migrate()}.
+     */
+    public int backfillReferenceCounts() {
+        String uncounted = "i.content_hash is not null and i.reference_counted = false"
+                + (legacyImageColumn.isPresent() ? " and i.image is null" : "");
+        return transactionTemplate.execute(status -> {
+            int created = jdbcTemplate.update("insert into image_content (content_hash, file_size, reference_count) " +
+                    "select i.content_hash, max(i.file_size), 0 from image i where " + uncounted +
+                    " and not exists (select 1 from image_content c where c.content_hash = i.content_hash) " +
+                    "group by i.content_hash");
+            jdbcTemplate.update("update image_content c set reference_count = reference_count + " +
+                    "(select count(*) from image i where i.content_hash = c.content_hash and " + uncounted + ") " +
+                    "where exists (select 1 from image i where i.content_hash = c.content_hash and " + uncounted + ")");
+            jdbcTemplate.update("update image i set reference_counted = true where " + uncounted);
+            return created;
+        });
+    }
+
+    public int migrate() {
+        // Rows replaced since they were counted no longer use their legacy bytes.
+        jdbcTemplate.update("update image set image = null where image is not null and reference_counted = true");
+        int migrated = 0;
+        long afterId = 0L;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "select id from image where image is not null and reference_counted = false and id > ? order by id limit " + BATCH_SIZE, Long.class, afterId);
+            for (Long id : ids) {
+                migrateImage(id);
+                afterId = id;
+                migrated++;
+            }
+        } while (ids.size() == BATCH_SIZE);
+        return migrated;
+    }
+
+    private void migrateImage(Long id) {
+        Image stored = jdbcTemplate.query("select image from image where id = ?", rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            Image image = new Image();
+            try (InputStream content = rs.getBinaryStream(1)) {
+                imageStorage.store(image, content);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not migrate image " + id, e);
+            }
+            return image;
+        }, id);
+        if (stored != null) {
+            jdbcTemplate.update("update image set content_hash = ?, file_size = ?, reference_counted = true, image = null where id = ?",
+                    stored.getContentHash(), stored.getFileSize(), id);
+        }
+    }
+}
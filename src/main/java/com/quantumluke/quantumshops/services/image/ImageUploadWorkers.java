@@ -0,0 +1,67 @@
+package com.quantumluke.quantumshops.services.image;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Runs the per-file work of multi-file uploads. At most {@code images.upload.parallelism} files are
+ * processed at once across all requests, which keeps uploads from exhausting the connection pool.
+ * <p>
+ * When the runtime has virtual threads (Java 21+) every file gets a virtual thread of its own and the
+ * bound is a semaphore, so waiting files hold no carrier thread; the application targets Java 17, so
+ * they are looked up reflectively and a fixed pool of platform threads is used otherwise.
+ */
+@Slf4j
+@Component
+public class ImageUploadWorkers {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public ImageUploadWorkers(@Value("${images.upload.parallelism:8}") int parallelism) {
+        this.permits = new Semaphore(parallelism);
+        this.executor = executor(parallelism);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService executor(int parallelism) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "image-upload-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+            log.info("Processing image uploads on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            CustomizableThreadFactory factory = new CustomizableThreadFactory("image-upload-");
+            factory.setDaemon(true);
+            return Executors.newFixedThreadPool(parallelism, factory);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.quantumluke.quantumshops.services.image;
+
+public record ImageVariant(byte[] content, String contentType) {
+}
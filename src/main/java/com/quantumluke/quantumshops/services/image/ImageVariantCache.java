@@ -0,0 +1,260 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache of generated image variants: an in-memory LRU bounded by
+ * {@code images.variants.memory-max-bytes} in front of a directory bounded by
+ * {@code images.variants.disk-max-bytes}, also evicted least recently used first. A disk hit is
+ * promoted back into memory.
+ * <p>
+ * Concurrent misses on the same variant are coalesced so each one is generated once. Keys carry the
+ * content hash, so a variant is only ever served for the content it was made from;
+ * {@link #evict(Long)} merely reclaims the space of an image's variants once its content is replaced
+ * or deleted. The directory only lives as long as the process: on
+ * startup the files of a directory carrying this cache's marker file are deleted, an empty or missing
+ * directory is claimed with the marker, and any other directory is refused rather than emptied.
+ */
+@Slf4j
+@Component
+public class ImageVariantCache {
+    private static final String MARKER = ".quantumshops-variants";
+
+    private final Path directory;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final LinkedHashMap<ImageVariantKey, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<ImageVariantKey, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+    private final ConcurrentHashMap<ImageVariantKey, CompletableFuture<byte[]>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ImageVariantCache(@Value("${images.variants.dir:${java.io.tmpdir}/quantumshops-variants}") String directory,
+                             @Value("${images.variants.memory-max-bytes:33554432}") long memoryMaxBytes,
+                             @Value("${images.variants.disk-max-bytes:536870912}") long diskMaxBytes) throws IOException {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        prepare(this.directory);
+    }
+
+    private static void prepare(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path marker = directory.resolve(MARKER);
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(entry -> !entry.equals(marker)).toList();
+        }
+        if (!Files.exists(marker)) {
+            if (!files.isEmpty()) {
+                throw new IllegalStateException("Image variant directory " + directory
+                        + " is not empty and was not created by this cache");
+            }
+            Files.createFile(marker);
+            return;
+        }
+        for (Path file : files) {
+            if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public byte[] get(ImageVariantKey key, Supplier<byte[]> generator) {
+        byte[] cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            coalescedLoads.incrementAndGet();
+            hits.incrementAndGet();
+            return await(inFlight);
+        }
+        misses.incrementAndGet();
+        try {
+            byte[] content = generator.get();
+            if (loads.get(key) == load) {
+                store(key, content);
+                if (!loads.remove(key, load)) {
+                    // Evicted while being stored.
+                    remove(key::equals);
+                }
+            }
+            load.complete(content);
+            return content;
+        } catch (RuntimeException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void evict(Long imageId) {
+        loads.keySet().removeIf(key -> key.imageId().equals(imageId));
+        remove(key -> key.imageId().equals(imageId));
+    }
+
+    public CacheStatsDto stats() {
+        synchronized (this) {
+            return CacheStatsDto.of(hits.get(), misses.get(), coalescedLoads.get(), evictions.get(), disk.size());
+        }
+    }
+
+    private void remove(Predicate<ImageVariantKey> matching) {
+        List<Path> files = new ArrayList<>();
+        synchronized (this) {
+            memory.entrySet().removeIf(entry -> {
+                if (!matching.test(entry.getKey())) {
+                    return false;
+                }
+                memoryBytes -= entry.getValue().length;
+                return true;
+            });
+            disk.entrySet().removeIf(entry -> {
+                if (!matching.test(entry.getKey())) {
+                    return false;
+                }
+                diskBytes -= entry.getValue();
+                files.add(directory.resolve(entry.getKey().fileName()));
+                return true;
+            });
+        }
+        delete(files);
+    }
+
+    private byte[] lookup(ImageVariantKey key) {
+        synchronized (this) {
+            byte[] content = memory.get(key);
+            if (content != null) {
+                return content;
+            }
+            if (disk.get(key) == null) {
+                return null;
+            }
+        }
+        try {
+            byte[] content = Files.readAllBytes(directory.resolve(key.fileName()));
+            synchronized (this) {
+                if (disk.containsKey(key)) {
+                    putInMemory(key, content);
+                }
+            }
+            return content;
+        } catch (NoSuchFileException e) {
+            // Evicted between the index check and the read.
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the variant to disk before publishing it in either tier, so a disk index entry always has a
+     * complete file behind it.
+     */
+    private void store(ImageVariantKey key, byte[] content) {
+        Path file = directory.resolve(key.fileName());
+        try {
+            Path staged = Files.createTempFile(directory, key.fileName(), ".tmp");
+            try {
+                Files.write(staged, content);
+                Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(staged);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write image variant {} to disk", file, e);
+            synchronized (this) {
+                putInMemory(key, content);
+            }
+            return;
+        }
+
+        List<Path> victims = new ArrayList<>();
+        synchronized (this) {
+            Long previous = disk.put(key, (long) content.length);
+            diskBytes += content.length - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<ImageVariantKey, Long>> eldest = disk.entrySet().iterator();
+            while (diskBytes > diskMaxBytes && eldest.hasNext()) {
+                Map.Entry<ImageVariantKey, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                eldest.remove();
+                diskBytes -= entry.getValue();
+                victims.add(directory.resolve(entry.getKey().fileName()));
+                evictions.incrementAndGet();
+            }
+            putInMemory(key, content);
+        }
+        delete(victims);
+    }
+
+    private void putInMemory(ImageVariantKey key, byte[] content) {
+        if (content.length > memoryMaxBytes) {
+            return;
+        }
+        byte[] previous = memory.put(key, content);
+        memoryBytes += content.length - (previous == null ? 0 : previous.length);
+        Iterator<Map.Entry<ImageVariantKey, byte[]>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+            Map.Entry<ImageVariantKey, byte[]> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            eldest.remove();
+            memoryBytes -= entry.getValue().length;
+        }
+    }
+
+    private void delete(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete image variant {}", file, e);
+            }
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
+
+/**
+ * Identifies a variant by the content it was made from, so a replaced image never maps to a variant
+ * of its old bytes. Images stored before content was hashed have no hash.
+ */
+public record ImageVariantKey(Long imageId, String contentHash, int width, ImageVariantFormat format) {
+
+    String fileName() {
+        return imageId + "-" + (contentHash == null ? "legacy" : contentHash) + "-w" + width + "." + format.getExtension();
+    }
+}
@@ -0,0 +1,86 @@
+package com.quantumluke.quantumshops.services.image;
+
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * Read access to the blob column the image table used to keep its bytes in, for rows not yet moved
+ * out with {@code --migrate-images}. The column is no longer mapped on
+ * {@link com.quantumluke.quantumshops.models.Image}, so it is only read here, on download, and only
+ * for such rows. Schemas created after the column was dropped from the mapping simply lack it.
+ */
+@Component
+public class LegacyImageColumn {
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean present;
+
+    public LegacyImageColumn(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPresent() {
+        Boolean result = present;
+        if (result == null) {
+            try {
+                jdbcTemplate.queryForList("select image from image where 1 = 0");
+                result = true;
+            } catch (BadSqlGrammarException e) {
+                result = false;
+            }
+            present = result;
+        }
+        return result;
+    }
+
+    long size(Long imageId) throws IOException {
+        return read(imageId, blob -> blob.length());
+    }
+
+    void transferTo(Long imageId, long position, long count, WritableByteChannel target) throws IOException {
+        read(imageId, blob -> {
+            DatabaseImageStorage.transferBlob(blob, position, count, target);
+            return null;
+        });
+    }
+
+    /**
+     * Legacy rows predate streamed uploads and are small enough to read whole.
+     */
+    InputStream openStream(Long imageId) throws IOException {
+        return read(imageId, blob -> new ByteArrayInputStream(blob.getBytes(1, (int) blob.length())));
+    }
+
+    private <T> T read(Long imageId, BlobReader<T> reader) throws IOException {
+        if (!isPresent()) {
+            throw new FileNotFoundException("No stored content for image " + imageId);
+        }
+        try {
+            return jdbcTemplate.query("select image from image where id = ? and image is not null", rs -> {
+                if (!rs.next()) {
+                    throw new UncheckedIOException(new FileNotFoundException("No stored content for image " + imageId));
+                }
+                try {
+                    return reader.read(rs.getBlob(1));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, imageId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface BlobReader<T> {
+        T read(Blob blob) throws IOException, SQLException;
+    }
+}
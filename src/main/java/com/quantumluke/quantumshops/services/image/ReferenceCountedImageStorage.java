@@ -0,0 +1,128 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores each distinct content once and counts the image rows referencing it in {@link ImageContent}.
+ * An upload whose hash is already known only increments the count; the content is removed when the
+ * last reference is released. Images whose content is not in the store are read from the
+ * {@link LegacyImageColumn}.
+ * <p>
+ * Changes to one hash are serialised on a striped lock, so a release dropping the last reference can
+ * never remove content that a concurrent upload of the same bytes has just referenced. The lock only
+ * covers this process: image storage must be served by a single instance, as another instance could
+ * reference content between this one deleting its row and deleting its bytes. The stripes are
+ * {@link ReentrantLock}s rather than monitors, so an upload worker on a virtual thread does not pin its
+ * carrier while it holds one across database calls.
+ */
+abstract class ReferenceCountedImageStorage implements ImageStorage {
+    private static final int LOCK_STRIPES = 64;
+
+    protected final ImageContentRepository imageContentRepository;
+    private final LegacyImageColumn legacyImageColumn;
+    private final Path spool;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    protected ReferenceCountedImageStorage(ImageContentRepository imageContentRepository,
+                                           LegacyImageColumn legacyImageColumn, Path spool) {
+        this.imageContentRepository = imageContentRepository;
+        this.legacyImageColumn = legacyImageColumn;
+        this.spool = spool;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void store(Image image, InputStream content) throws IOException {
+        SpooledContent spooled = SpooledContent.spool(spool, content);
+        try {
+            ReentrantLock lock = lockFor(spooled.contentHash());
+            lock.lock();
+            try {
+                if (imageContentRepository.incrementReferences(spooled.contentHash()) == 0) {
+                    saveContent(spooled);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(spooled.file());
+        }
+        image.setContentHash(spooled.contentHash());
+        image.setFileSize(spooled.size());
+        image.setReferenceCounted(true);
+    }
+
+    @Override
+    public long size(Image image) throws IOException {
+        return image.getFileSize() != null ? image.getFileSize() : legacyImageColumn.size(image.getId());
+    }
+
+    @Override
+    public void transferTo(Image image, long position, long count, WritableByteChannel target) throws IOException {
+        if (image.getContentHash() == null || !transferContent(image.getContentHash(), position, count, target)) {
+            legacyImageColumn.transferTo(image.getId(), position, count, target);
+        }
+    }
+
+    @Override
+    public InputStream openStream(Image image) throws IOException {
+        InputStream content = image.getContentHash() == null ? null : openContent(image.getContentHash());
+        return content != null ? content : legacyImageColumn.openStream(image.getId());
+    }
+
+    @Override
+    public void release(Image image) throws IOException {
+        String contentHash = image.getContentHash();
+        if (contentHash == null || !image.isReferenceCounted()) {
+            // Legacy rows were never counted, even those already hashed; releasing one would take
+            // away a reference held by a later upload of the same bytes.
+            return;
+        }
+        ReentrantLock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            imageContentRepository.decrementReferences(contentHash);
+            if (imageContentRepository.deleteUnreferenced(contentHash) > 0) {
+                deleteContent(contentHash);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves the first copy of the content as an {@link ImageContent} with one reference. The spool file
+     * may be moved away; it is deleted afterwards if it is still there.
+     */
+    protected abstract void saveContent(SpooledContent spooled) throws IOException;
+
+    /**
+     * Writes part of stored content, or returns {@code false} without writing if it is not stored.
+     */
+    protected abstract boolean transferContent(String contentHash, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * Opens stored content, or returns {@code null} if it is not stored.
+     */
+    protected abstract InputStream openContent(String contentHash) throws IOException;
+
+    /**
+     * Removes stored bytes whose {@link ImageContent} row has just been deleted.
+     */
+    protected abstract void deleteContent(String contentHash) throws IOException;
+
+    private ReentrantLock lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,42 @@
+package com.quantumluke.quantumshops.services.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Upload content copied to a temporary file through a fixed-size buffer, with its SHA-256 hash and
+ * size computed on the way, so the bytes are never held in memory as a whole.
+ */
+record SpooledContent(Path file, String contentHash, long size) {
+
+    static SpooledContent spool(Path directory, InputStream content) throws IOException {
+        Path file = Files.createTempFile(directory, "upload-", ".part");
+        try {
+            MessageDigest digest = newDigest();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(file)) {
+                size = in.transferTo(out);
+            }
+            return new SpooledContent(file, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.quantumluke.quantumshops.services.order;
 import com.quantumluke.quantumshops.dto.OrderDto;
 import com.quantumluke.quantumshops.enums.OrderStatus;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.OrderMapper;
 import com.quantumluke.quantumshops.models.Cart;
 import com.quantumluke.quantumshops.models.Order;
 import com.quantumluke.quantumshops.models.OrderItem;
@@ -10,9 +11,9 @@ import com.quantumluke.quantumshops.models.Product;
 import com.quantumluke.quantumshops.repository.OrderRepository;
 import com.quantumluke.quantumshops.repository.ProductRepository;
 import com.quantumluke.quantumshops.services.cart.CartService;
+import com.quantumluke.quantumshops.services.product.ProductCache;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -26,11 +27,13 @@ public class OrderService implements IOrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final CartService cartService;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
+    private final ProductCache productCache;
 
     @Transactional
     @Override
     public Order createOrder(Long userId) {
+        // Writes back any changes the cart store still holds, within this transaction.
         Cart cart = cartService.getCartByUserId(userId);
 
         Order order = createOrder(cart);
@@ -58,8 +61,8 @@ public class OrderService implements IOrderService {
                 .stream()
                 .map(cartItem -> {
                     Product product = cartItem.getProduct();
-                    product.setInventory(product.getInventory() - cartItem.getQuantity());
-                    productRepository.save(product);
+                    productRepository.decrementInventory(product.getId(), cartItem.getQuantity());
+                    productCache.evict(product.getId());
                     return new OrderItem(
                             order,
                             product,
@@ -96,6 +99,6 @@ public class OrderService implements IOrderService {
 
     @Override
     public OrderDto convertToDto(Order order) {
-        return modelMapper.map(order, OrderDto.class);
+        return orderMapper.toDto(order);
     }
 }
@@ -1,27 +1,54 @@
 package com.quantumluke.quantumshops.services.product;
 
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
+import com.quantumluke.quantumshops.dto.FacetCountsDto;
 import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.dto.ProductPageDto;
+import com.quantumluke.quantumshops.dto.ProductSearchHitDto;
 import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.EntityVersion;
 import com.quantumluke.quantumshops.request.AddProductRequest;
 import com.quantumluke.quantumshops.request.UpdateProductRequest;
+import com.quantumluke.quantumshops.response.ProductIngestResult;
+import com.quantumluke.quantumshops.response.ProductIngestSummary;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IProductService {
     Product addProduct(AddProductRequest request);
     List<Product> addProducts(List<AddProductRequest> requests);
+    ProductIngestSummary ingestProducts(List<AddProductRequest> requests, Integer chunkSize, Consumer<ProductIngestResult> listener);
     Product getProductById(Long id);
+    Long getProductVersion(Long id);
+    void bumpProductVersion(Long id);
     void deleteProductById(Long id);
     Product updateProduct(Long productId, UpdateProductRequest product);
-    List<Product> getAllProducts();
-    List<Product> getProductsByCategory(String category);
-    List<Product> getProductsByBrand(String brand);
-    List<Product> getProductsByCategoryAndBrand(String category, String brand);
-    List<Product> getProductsByName(String name);
-    List<Product> getProductsByBrandAndName(String category, String name);
+    List<Product> getAllProducts(Long afterId, int limit);
+    List<Product> getProductsByCategory(String category, Long afterId, int limit);
+    List<Product> getProductsByBrand(String brand, Long afterId, int limit);
+    List<Product> getProductsByCategoryAndBrand(String category, String brand, Long afterId, int limit);
+    List<Product> getProductsByName(String name, Long afterId, int limit);
+    List<Product> getProductsByBrandAndName(String brand, String name, Long afterId, int limit);
+    List<EntityVersion> getAllProductVersions(Long afterId, int limit);
+    List<EntityVersion> getProductVersionsByCategory(String category, Long afterId, int limit);
+    List<EntityVersion> getProductVersionsByBrand(String brand, Long afterId, int limit);
+    List<EntityVersion> getProductVersionsByCategoryAndBrand(String category, String brand, Long afterId, int limit);
+    List<EntityVersion> getProductVersionsByName(String name, Long afterId, int limit);
+    List<EntityVersion> getProductVersionsByBrandAndName(String brand, String name, Long afterId, int limit);
     Long countProductsByBrandAndName(String brand, String name);
+    List<ProductSearchHitDto> searchProducts(String query, int page, int size);
+    FacetCountsDto getFacetCounts();
+    CacheStatsDto getCacheStats();
 
     List<ProductDto> getConvertedProducts(List<Product> products);
 
+    void attachImages(Collection<ProductDto> productDtos);
+
+    ProductPageDto getConvertedPage(List<Product> products, int limit);
+
+    void exportProducts(String category, String brand, Consumer<List<ProductDto>> sink);
+
     ProductDto convertToDto(Product product);
 }
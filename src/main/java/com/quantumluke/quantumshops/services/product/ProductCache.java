@@ -0,0 +1,183 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for products by id, bounded by size (LRU) and by time to live.
+ * <p>
+ * Concurrent misses on the same id are coalesced: the first caller runs the loader and the rest wait
+ * for its result, so a stampede costs a single database load. {@link #evict(Long)} also cancels the
+ * claim of any load in flight, so a load that raced with a write never repopulates the cache. Inside
+ * a transaction it evicts again once the transaction completes, since until then a load still reads
+ * the row as it was before the write.
+ * <p>
+ * Products are entities that callers attach to new rows or modify, so the cache keeps a private
+ * copy of each one and hands every caller a copy of its own. Copies carry the scalar fields, the
+ * version and the category, but not the lazy image collection.
+ */
+@Component
+public class ProductCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final ConcurrentHashMap<Long, CompletableFuture<Product>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProductCache(@Value("${products.cache.max-size:10000}") int maxSize,
+                        @Value("${products.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= ProductCache.this.maxSize) {
+                    return false;
+                }
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public Product get(Long id, Function<Long, Product> loader) {
+        Product cached = lookup(id);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<Product> load = new CompletableFuture<>();
+        CompletableFuture<Product> inFlight = loads.putIfAbsent(id, load);
+        if (inFlight != null) {
+            coalescedLoads.incrementAndGet();
+            hits.incrementAndGet();
+            return copyOf(await(inFlight));
+        }
+        misses.incrementAndGet();
+        try {
+            Product product = loader.apply(id);
+            Product copy = copyOf(product);
+            if (loads.remove(id, load)) {
+                store(id, copy);
+            }
+            load.complete(copy);
+            return copyOf(copy);
+        } catch (RuntimeException e) {
+            loads.remove(id, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void evict(Long id) {
+        remove(id);
+        afterCompletion(() -> remove(id));
+    }
+
+    public void clear() {
+        removeAll();
+        afterCompletion(this::removeAll);
+    }
+
+    public CacheStatsDto stats() {
+        synchronized (entries) {
+            return CacheStatsDto.of(hits.get(), misses.get(), coalescedLoads.get(), evictions.get(), entries.size());
+        }
+    }
+
+    private Product lookup(Long id) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() > 0) {
+                entries.remove(id);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return copyOf(entry.product());
+        }
+    }
+
+    private void remove(Long id) {
+        loads.remove(id);
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    private void removeAll() {
+        loads.clear();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setBrand(product.getBrand());
+        copy.setPrice(product.getPrice());
+        copy.setInventory(product.getInventory());
+        copy.setDescription(product.getDescription());
+        copy.setVersion(product.getVersion());
+        Category category = product.getCategory();
+        if (category != null) {
+            Category categoryCopy = new Category(category.getName());
+            categoryCopy.setId(category.getId());
+            categoryCopy.setVersion(category.getVersion());
+            copy.setCategory(categoryCopy);
+        }
+        return copy;
+    }
+
+    private void store(Long id, Product product) {
+        synchronized (entries) {
+            entries.put(id, new Entry(product, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private static Product await(CompletableFuture<Product> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(Product product, long expiresAt) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.dto.FacetCountsDto;
+import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ProductFacetCount;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.services.category.ICategoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Product counts per category, per brand and per category and brand, kept as running totals.
+ * <p>
+ * The totals are loaded with one grouped query once the application is ready and then adjusted by
+ * {@link ProductService} and {@link ProductIngestPipeline} on every product write. Categories are
+ * counted by id and named only when a snapshot is taken, so renaming a category needs no recount.
+ * Brands are counted lower-cased, both when loaded and when adjusted, so "Nike" and "nike" are one
+ * brand whatever the database collation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFacetCounts implements ApplicationListener<ApplicationReadyEvent> {
+    private final ProductRepository productRepository;
+    private final ICategoryService categoryService;
+
+    private final Map<Long, Long> categoryCounts = new HashMap<>();
+    private final Map<String, Long> brandCounts = new HashMap<>();
+    private final Map<Facet, Long> categoryBrandCounts = new HashMap<>();
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        categoryCounts.clear();
+        brandCounts.clear();
+        categoryBrandCounts.clear();
+        for (ProductFacetCount row : productRepository.countByCategoryAndBrand()) {
+            adjust(new Facet(row.getCategoryId(), row.getBrand()), row.getProductCount());
+        }
+        log.info("Product facet counts built for {} categories and {} brands", categoryCounts.size(), brandCounts.size());
+    }
+
+    public synchronized void increment(Facet facet) {
+        adjust(facet, 1);
+    }
+
+    public synchronized void decrement(Facet facet) {
+        adjust(facet, -1);
+    }
+
+    public synchronized void move(Facet from, Facet to) {
+        if (!from.equals(to)) {
+            adjust(from, -1);
+            adjust(to, 1);
+        }
+    }
+
+    public FacetCountsDto snapshot() {
+        Map<Long, Long> categories;
+        Map<String, Long> brands;
+        Map<Facet, Long> categoryBrands;
+        synchronized (this) {
+            categories = new HashMap<>(categoryCounts);
+            brands = new TreeMap<>(brandCounts);
+            categoryBrands = new HashMap<>(categoryBrandCounts);
+        }
+        Map<Long, String> categoryNames = new HashMap<>();
+        Map<String, Long> categoryFacets = new TreeMap<>();
+        categories.forEach((categoryId, count) -> {
+            String name = categoryNames.computeIfAbsent(categoryId, this::categoryName);
+            if (name != null) {
+                categoryFacets.merge(name, count, Long::sum);
+            }
+        });
+        Map<String, Map<String, Long>> categoryBrandFacets = new TreeMap<>();
+        categoryBrands.forEach((facet, count) -> {
+            String name = categoryNames.computeIfAbsent(facet.categoryId(), this::categoryName);
+            if (name != null) {
+                categoryBrandFacets.computeIfAbsent(name, key -> new TreeMap<>()).merge(facet.brand(), count, Long::sum);
+            }
+        });
+        return new FacetCountsDto(categoryFacets, brands, categoryBrandFacets);
+    }
+
+    private void adjust(Facet facet, long delta) {
+        if (facet.categoryId() != null) {
+            adjust(categoryCounts, facet.categoryId(), delta);
+        }
+        if (facet.brand() != null) {
+            adjust(brandCounts, facet.brand(), delta);
+        }
+        if (facet.categoryId() != null && facet.brand() != null) {
+            adjust(categoryBrandCounts, facet, delta);
+        }
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+        counts.compute(key, (k, count) -> {
+            long updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    private String categoryName(Long categoryId) {
+        try {
+            return categoryService.getCategoryById(categoryId).getName();
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    public record Facet(Long categoryId, String brand) {
+        public Facet {
+            brand = brand == null ? null : brand.toLowerCase(Locale.ROOT);
+        }
+
+        public static Facet of(Product product) {
+            return new Facet(product.getCategory() == null ? null : product.getCategory().getId(), product.getBrand());
+        }
+    }
+}
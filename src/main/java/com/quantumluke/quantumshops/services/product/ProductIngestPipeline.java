@@ -0,0 +1,227 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.CategoryRepository;
+import com.quantumluke.quantumshops.repository.ProductNameAndBrand;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.request.AddProductRequest;
+import com.quantumluke.quantumshops.response.ProductIngestResult;
+import com.quantumluke.quantumshops.response.ProductIngestSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Set-based bulk import of products.
+ * <p>
+ * Requests are processed in chunks, each in its own transaction: one query finds the name/brand pairs
+ * that already exist, categories are looked up once per distinct name, and the new rows are written
+ * with a single JDBC batch insert. Per-item results are handed to the listener as each chunk commits.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIngestPipeline {
+    private static final String INSERT_PRODUCT_SQL =
+            "insert into product (name, brand, price, inventory, description, category_id, version) values (?, ?, ?, ?, ?, ?, 0)";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetCounts facetCounts;
+
+    @Value("${products.ingest.chunk-size:500}")
+    private int defaultChunkSize;
+
+    public ProductIngestSummary ingest(List<AddProductRequest> requests, Integer chunkSize, Consumer<ProductIngestResult> listener) {
+        int size = chunkSize == null || chunkSize < 1 ? defaultChunkSize : chunkSize;
+        long start = System.nanoTime();
+        NavigableMap<String, Category> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int succeeded = 0;
+        for (int from = 0; from < requests.size(); from += size) {
+            List<AddProductRequest> chunk = requests.subList(from, Math.min(from + size, requests.size()));
+            for (ProductIngestResult result : ingestChunk(chunk, from, categories)) {
+                if (result.isSuccess()) {
+                    succeeded++;
+                }
+                listener.accept(result);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        double itemsPerSecond = elapsedNanos == 0 ? 0 : requests.size() * 1_000_000_000d / elapsedNanos;
+        log.info("Ingested {} of {} products in {} ms ({} items/s)", succeeded, requests.size(),
+                elapsedNanos / 1_000_000, Math.round(itemsPerSecond));
+        return new ProductIngestSummary(requests.size(), succeeded, requests.size() - succeeded,
+                elapsedNanos / 1_000_000, itemsPerSecond);
+    }
+
+    private List<ProductIngestResult> ingestChunk(List<AddProductRequest> chunk, int offset, NavigableMap<String, Category> categories) {
+        NavigableMap<String, Category> chunkCategories = new TreeMap<>(categories);
+        try {
+            List<Product> inserted = new ArrayList<>();
+            List<ProductIngestResult> results = transactionTemplate.execute(status ->
+                    writeChunk(chunk, offset, chunkCategories, inserted));
+            categories.putAll(chunkCategories);
+            for (Product product : inserted) {
+                searchIndex.index(product);
+                facetCounts.increment(ProductFacetCounts.Facet.of(product));
+            }
+            return results;
+        } catch (RuntimeException e) {
+            log.warn("Bulk ingest chunk starting at item {} failed: {}", offset, e.getMessage());
+            List<ProductIngestResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                AddProductRequest request = chunk.get(i);
+                results.add(ProductIngestResult.failed(offset + i, request.getName(), request.getBrand(), e.getMessage()));
+            }
+            return results;
+        }
+    }
+
+    private List<ProductIngestResult> writeChunk(List<AddProductRequest> chunk, int offset,
+                                                 NavigableMap<String, Category> categories, List<Product> inserted) {
+        ProductIngestResult[] results = new ProductIngestResult[chunk.size()];
+        Set<String> existing = findExistingKeys(chunk);
+        Set<String> seen = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            AddProductRequest request = chunk.get(i);
+            String error = validate(request);
+            if (error == null) {
+                String key = key(request.getName(), request.getBrand());
+                if (existing.contains(key) || !seen.add(key)) {
+                    error = "Product " + request.getBrand() + " " + request.getName() + " already exists";
+                }
+            }
+            if (error != null) {
+                results[i] = ProductIngestResult.failed(offset + i, request.getName(), request.getBrand(), error);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        resolveCategories(accepted.stream().map(i -> chunk.get(i).getCategory().getName()).toList(), categories);
+        List<Product> products = accepted.stream()
+                .map(i -> createProduct(chunk.get(i), categories.get(chunk.get(i).getCategory().getName())))
+                .toList();
+        List<Long> ids = batchInsert(products);
+        for (int j = 0; j < accepted.size(); j++) {
+            int i = accepted.get(j);
+            Product product = products.get(j);
+            product.setId(ids.get(j));
+            product.setVersion(0L);
+            inserted.add(product);
+            results[i] = ProductIngestResult.succeeded(offset + i, product.getName(), product.getBrand(), product.getId());
+        }
+        return Arrays.asList(results);
+    }
+
+    private Set<String> findExistingKeys(List<AddProductRequest> chunk) {
+        Set<String> names = new HashSet<>();
+        Set<String> brands = new HashSet<>();
+        for (AddProductRequest request : chunk) {
+            if (request.getName() != null && request.getBrand() != null) {
+                names.add(request.getName());
+                brands.add(request.getBrand());
+            }
+        }
+        if (names.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = new HashSet<>();
+        for (ProductNameAndBrand product : productRepository.findNameAndBrandIn(names, brands)) {
+            existing.add(key(product.getName(), product.getBrand()));
+        }
+        return existing;
+    }
+
+    private void resolveCategories(List<String> names, NavigableMap<String, Category> categories) {
+        Set<String> missing = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : names) {
+            if (!categories.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Category category : categoryRepository.findByNameIn(missing)) {
+            categories.put(category.getName(), category);
+            missing.remove(category.getName());
+        }
+        for (Category category : categoryRepository.saveAll(missing.stream().map(Category::new).toList())) {
+            categories.put(category.getName(), category);
+        }
+    }
+
+    private List<Long> batchInsert(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setString(1, product.getName());
+                        ps.setString(2, product.getBrand());
+                        ps.setBigDecimal(3, product.getPrice());
+                        ps.setInt(4, product.getInventory());
+                        ps.setString(5, product.getDescription());
+                        ps.setObject(6, product.getCategory().getId(), Types.BIGINT);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private static Product createProduct(AddProductRequest request, Category category) {
+        Product product = new Product();
+        product.setName(request.getName());
+        product.setBrand(request.getBrand());
+        product.setPrice(request.getPrice());
+        product.setInventory(request.getInventory());
+        product.setDescription(request.getDescription());
+        product.setCategory(category);
+        return product;
+    }
+
+    private static String validate(AddProductRequest request) {
+        if (request.getName() == null || request.getBrand() == null) {
+            return "Product name and brand are required";
+        }
+        if (request.getCategory() == null || request.getCategory().getName() == null) {
+            return "Product category is required";
+        }
+        return null;
+    }
+
+    // MySQL's default collation compares case-insensitively, so duplicates are detected the same way here.
+    private static String key(String name, String brand) {
+        return name.toLowerCase(Locale.ROOT) + '\u0000' + brand.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,251 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.dto.ProductSearchHitDto;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over product name, brand and category name.
+ * <p>
+ * Tokens are lower-cased and split on anything that is not a letter or digit. A query matches a
+ * product when every query token is a prefix of one of its tokens; hits are ranked by field weight
+ * (name over brand over category), with whole-token matches counting double. The index is built once
+ * the application is ready and kept current by {@link ProductService} on every product write, and by
+ * {@code CategoryService} when a category is renamed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private Postings current = new Postings();
+    // Products written while a rebuild reads the database, by id, with null for a removal; replayed
+    // onto the rebuilt postings before they replace the current ones. Null when no rebuild runs.
+    private Map<Long, Product> changedDuringRebuild;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Reads every product into new postings without holding the index lock, so searches keep being
+     * served from the current postings, then swaps them in.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            recordChanges(new LinkedHashMap<>());
+            Postings rebuilt = new Postings();
+            try {
+                long afterId = 0L;
+                List<Product> batch;
+                do {
+                    batch = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(REBUILD_BATCH_SIZE));
+                    for (Product product : batch) {
+                        rebuilt.replace(product.getId(), product);
+                        afterId = product.getId();
+                    }
+                } while (batch.size() == REBUILD_BATCH_SIZE);
+                lock.writeLock().lock();
+                try {
+                    changedDuringRebuild.forEach(rebuilt::replace);
+                    current = rebuilt;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                recordChanges(null);
+            }
+            log.info("Product search index built with {} products and {} tokens", rebuilt.documents.size(), rebuilt.postings.size());
+        }
+    }
+
+    /**
+     * Indexes the products of a category again, for instance after it was renamed.
+     */
+    public void reindexCategory(Long categoryId) {
+        long afterId = 0L;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByCategoryIdAndIdGreaterThanOrderByIdAsc(categoryId, afterId, Limit.of(REBUILD_BATCH_SIZE));
+            for (Product product : batch) {
+                index(product);
+                afterId = product.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+    }
+
+    public void index(Product product) {
+        write(product.getId(), product);
+    }
+
+    public void remove(Long productId) {
+        write(productId, null);
+    }
+
+    public List<ProductSearchHitDto> search(String query, int page, int size) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || page < 0 || size < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Postings postings = current;
+            Map<Long, Integer> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> tokenScores = postings.scoreToken(queryToken);
+                scores = scores == null ? tokenScores : intersect(scores, tokenScores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .skip((long) page * size)
+                    .limit(size)
+                    .map(entry -> postings.documents.get(entry.getKey()).toHit(entry.getValue()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Long productId, Product product) {
+        lock.writeLock().lock();
+        try {
+            current.replace(productId, product);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recordChanges(Map<Long, Product> changes) {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> scores, Map<Long, Integer> tokenScores) {
+        Map<Long, Integer> combined = new HashMap<>();
+        scores.forEach((productId, score) -> {
+            Integer tokenScore = tokenScores.get(productId);
+            if (tokenScore != null) {
+                combined.put(productId, score + tokenScore);
+            }
+        });
+        return combined;
+    }
+
+    private static void addTokens(Map<String, Integer> tokenWeights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            tokenWeights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static final class Postings {
+        private final Map<Long, IndexedProduct> documents = new HashMap<>();
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+        /**
+         * Replaces the indexed copy of a product, or removes it when {@code product} is null.
+         */
+        void replace(Long productId, Product product) {
+            remove(productId);
+            if (product != null) {
+                add(product);
+            }
+        }
+
+        private void add(Product product) {
+            String category = product.getCategory() == null ? null : product.getCategory().getName();
+            Map<String, Integer> tokenWeights = new HashMap<>();
+            addTokens(tokenWeights, product.getName(), NAME_WEIGHT);
+            addTokens(tokenWeights, product.getBrand(), BRAND_WEIGHT);
+            addTokens(tokenWeights, category, CATEGORY_WEIGHT);
+            tokenWeights.forEach((token, weight) ->
+                    postings.computeIfAbsent(token, key -> new HashMap<>()).put(product.getId(), weight));
+            documents.put(product.getId(), new IndexedProduct(product.getId(), product.getName(), product.getBrand(),
+                    category, product.getPrice(), tokenWeights.keySet()));
+        }
+
+        private void remove(Long productId) {
+            IndexedProduct existing = documents.remove(productId);
+            if (existing == null) {
+                return;
+            }
+            for (String token : existing.tokens()) {
+                Map<Long, Integer> productWeights = postings.get(token);
+                if (productWeights != null) {
+                    productWeights.remove(productId);
+                    if (productWeights.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+
+        private Map<Long, Integer> scoreToken(String queryToken) {
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            SortedMap<String, Map<Long, Integer>> matches = postings.subMap(queryToken, queryToken + Character.MAX_VALUE);
+            for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+                int multiplier = match.getKey().equals(queryToken) ? 2 : 1;
+                match.getValue().forEach((productId, weight) ->
+                        tokenScores.merge(productId, weight * multiplier, Math::max));
+            }
+            return tokenScores;
+        }
+    }
+
+    private record IndexedProduct(Long id, String name, String brand, String category, BigDecimal price,
+                                  Set<String> tokens) {
+        ProductSearchHitDto toHit(int score) {
+            return new ProductSearchHitDto(id, name, brand, category, price, score);
+        }
+    }
+}
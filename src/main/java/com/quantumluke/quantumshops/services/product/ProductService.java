@@ -1,32 +1,60 @@
 package com.quantumluke.quantumshops.services.product;
 
+import com.quantumluke.quantumshops.config.QueryCountInspector;
+import com.quantumluke.quantumshops.dto.CacheStatsDto;
+import com.quantumluke.quantumshops.dto.FacetCountsDto;
 import com.quantumluke.quantumshops.dto.ImageDto;
 import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.dto.ProductPageDto;
+import com.quantumluke.quantumshops.dto.ProductSearchHitDto;
 import com.quantumluke.quantumshops.exceptions.AlreadyExistsException;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.ImageMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
 import com.quantumluke.quantumshops.models.Category;
-import com.quantumluke.quantumshops.models.Image;
 import com.quantumluke.quantumshops.models.Product;
-import com.quantumluke.quantumshops.repository.CategoryRepository;
+import com.quantumluke.quantumshops.repository.EntityVersion;
+import com.quantumluke.quantumshops.repository.ImageMetadata;
 import com.quantumluke.quantumshops.repository.ImageRepository;
 import com.quantumluke.quantumshops.repository.ProductRepository;
 import com.quantumluke.quantumshops.request.AddProductRequest;
 import com.quantumluke.quantumshops.request.UpdateProductRequest;
+import com.quantumluke.quantumshops.response.ProductIngestResult;
+import com.quantumluke.quantumshops.response.ProductIngestSummary;
+import com.quantumluke.quantumshops.services.category.ICategoryService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService implements IProductService{
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final ICategoryService categoryService;
     private final ImageRepository imageRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final ImageMapper imageMapper;
+    private final ProductSearchIndex searchIndex;
+    private final ProductIngestPipeline ingestPipeline;
+    private final ProductCache productCache;
+    private final ProductFacetCounts facetCounts;
+    private final EntityManager entityManager;
+
+    @Value("${products.export.chunk-size:500}")
+    private int exportChunkSize;
 
     @Override
     public Product addProduct(AddProductRequest request) {
@@ -35,13 +63,16 @@ public class ProductService implements IProductService{
             throw new AlreadyExistsException("Product " + request.getBrand() + " " + request.getName() + " already exists");
         }
         Category category = Optional.ofNullable(
-                categoryRepository.findByName(request.getCategory().getName()))
+                categoryService.getCategoryByName(request.getCategory().getName()))
                 .orElseGet(() -> {
                    Category newCategory = new Category(request.getCategory().getName());
-                   return categoryRepository.save(newCategory);
+                   return categoryService.addCategory(newCategory);
                 });
         request.setCategory(category);
-        return productRepository.save(createProductFromRequest(request, category));
+        Product savedProduct = productRepository.save(createProductFromRequest(request, category));
+        searchIndex.index(savedProduct);
+        facetCounts.increment(ProductFacetCounts.Facet.of(savedProduct));
+        return savedProduct;
     }
 
     @Override
@@ -49,6 +80,11 @@ public class ProductService implements IProductService{
         return requests.stream().map(this::addProduct).collect(Collectors.toList());
     }
 
+    @Override
+    public ProductIngestSummary ingestProducts(List<AddProductRequest> requests, Integer chunkSize, Consumer<ProductIngestResult> listener) {
+        return ingestPipeline.ingest(requests, chunkSize, listener);
+    }
+
     private boolean productExists(String name, String brand){
         return productRepository.existsByNameAndBrand(name, brand);
     }
@@ -66,15 +102,32 @@ public class ProductService implements IProductService{
 
     @Override
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        return productCache.get(id, productId -> productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId)));
+    }
+
+    @Override
+    public Long getProductVersion(Long id) {
+        return productRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
+    @Override
+    public void bumpProductVersion(Long id) {
+        productRepository.incrementVersion(id);
+        productCache.evict(id);
+    }
+
     @Override
     public void deleteProductById(Long id) {
         productRepository.findById(id)
                 .ifPresentOrElse(
-                        productRepository::delete,
+                        product -> {
+                            productRepository.delete(product);
+                            productCache.evict(id);
+                            searchIndex.remove(id);
+                            facetCounts.decrement(ProductFacetCounts.Facet.of(product));
+                        },
                         () -> { throw new ResourceNotFoundException("Product not found with id: " + id); }
                 );
     }
@@ -82,10 +135,14 @@ public class ProductService implements IProductService{
     @Override
     public Product updateProduct(Long productId, UpdateProductRequest request) {
 
-        return productRepository.findById(productId)
-                .map(existingProduct -> updateExistingProductFromRequest(existingProduct, request))
-                .map(productRepository::save)
+        Product existingProduct = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        ProductFacetCounts.Facet previousFacet = ProductFacetCounts.Facet.of(existingProduct);
+        Product updatedProduct = productRepository.save(updateExistingProductFromRequest(existingProduct, request));
+        productCache.evict(productId);
+        searchIndex.index(updatedProduct);
+        facetCounts.move(previousFacet, ProductFacetCounts.Facet.of(updatedProduct));
+        return updatedProduct;
     }
 
     private Product updateExistingProductFromRequest(Product existingProduct, UpdateProductRequest request){
@@ -95,40 +152,82 @@ public class ProductService implements IProductService{
         existingProduct.setInventory(request.getInventory());
         existingProduct.setDescription(request.getDescription());
 
-        Category category = categoryRepository.findByName(request.getCategory().getName());
+        Category category = categoryService.getCategoryByName(request.getCategory().getName());
         existingProduct.setCategory(category);
         return existingProduct;
 
     }
 
     @Override
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public List<Product> getAllProducts(Long afterId, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(cursor(afterId), pageLimit(limit));
+    }
+
+    @Override
+    public List<Product> getProductsByCategory(String category, Long afterId, int limit) {
+        return productRepository.findByCategoryNameAndIdGreaterThanOrderByIdAsc(category, cursor(afterId), pageLimit(limit));
+    }
+
+    @Override
+    public List<Product> getProductsByBrand(String brand, Long afterId, int limit) {
+        return productRepository.findByBrandAndIdGreaterThanOrderByIdAsc(brand, cursor(afterId), pageLimit(limit));
+    }
+
+    @Override
+    public List<Product> getProductsByCategoryAndBrand(String category, String brand, Long afterId, int limit) {
+        return productRepository.findByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(category, brand, cursor(afterId), pageLimit(limit));
+    }
+
+    @Override
+    public List<Product> getProductsByName(String name, Long afterId, int limit) {
+        return productRepository.findByNameAndIdGreaterThanOrderByIdAsc(name, cursor(afterId), pageLimit(limit));
     }
 
     @Override
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategoryName(category);
+    public List<Product> getProductsByBrandAndName(String brand, String name, Long afterId, int limit) {
+        return productRepository.findByBrandAndNameAndIdGreaterThanOrderByIdAsc(brand, name, cursor(afterId), pageLimit(limit));
     }
 
     @Override
-    public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrand(brand);
+    public List<EntityVersion> getAllProductVersions(Long afterId, int limit) {
+        return productRepository.findVersionsByIdGreaterThanOrderByIdAsc(cursor(afterId), pageLimit(limit));
     }
 
     @Override
-    public List<Product> getProductsByCategoryAndBrand(String category, String brand) {
-        return productRepository.findByCategoryNameAndBrand(category, brand);
+    public List<EntityVersion> getProductVersionsByCategory(String category, Long afterId, int limit) {
+        return productRepository.findVersionsByCategoryNameAndIdGreaterThanOrderByIdAsc(category, cursor(afterId), pageLimit(limit));
     }
 
     @Override
-    public List<Product> getProductsByName(String name) {
-        return productRepository.findByName(name);
+    public List<EntityVersion> getProductVersionsByBrand(String brand, Long afterId, int limit) {
+        return productRepository.findVersionsByBrandAndIdGreaterThanOrderByIdAsc(brand, cursor(afterId), pageLimit(limit));
     }
 
     @Override
-    public List<Product> getProductsByBrandAndName(String brand, String name) {
-        return productRepository.findByBrandAndName(brand, name);
+    public List<EntityVersion> getProductVersionsByCategoryAndBrand(String category, String brand, Long afterId, int limit) {
+        return productRepository.findVersionsByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(category, brand, cursor(afterId), pageLimit(limit));
+    }
+
+    @Override
+    public List<EntityVersion> getProductVersionsByName(String name, Long afterId, int limit) {
+        return productRepository.findVersionsByNameAndIdGreaterThanOrderByIdAsc(name, cursor(afterId), pageLimit(limit));
+    }
+
+    @Override
+    public List<EntityVersion> getProductVersionsByBrandAndName(String brand, String name, Long afterId, int limit) {
+        return productRepository.findVersionsByBrandAndNameAndIdGreaterThanOrderByIdAsc(brand, name, cursor(afterId), pageLimit(limit));
+    }
+
+    private static Long cursor(Long afterId) {
+        return afterId == null ? 0L : afterId;
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    private static Limit pageLimit(int limit) {
+        return Limit.of(pageSize(limit));
     }
 
     @Override
@@ -136,21 +235,84 @@ public class ProductService implements IProductService{
         return productRepository.countByBrandAndName(brand, name);
     }
 
+    @Override
+    public FacetCountsDto getFacetCounts() {
+        return facetCounts.snapshot();
+    }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        return productCache.stats();
+    }
+
+    @Override
+    public List<ProductSearchHitDto> searchProducts(String query, int page, int size) {
+        return searchIndex.search(query, page, pageSize(size));
+    }
+
+    @Override
+    public void exportProducts(String category, String brand, Consumer<List<ProductDto>> sink) {
+        Long afterId = 0L;
+        List<Product> chunk;
+        do {
+            chunk = findExportChunk(category, brand, afterId, Limit.of(exportChunkSize));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            sink.accept(getConvertedProducts(chunk));
+            // Under open-in-view the whole export shares one persistence context; drop each chunk once written.
+            entityManager.clear();
+        } while (chunk.size() == exportChunkSize);
+    }
+
+    private List<Product> findExportChunk(String category, String brand, Long afterId, Limit limit) {
+        if (category != null && brand != null) {
+            return productRepository.findByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(category, brand, afterId, limit);
+        }
+        if (category != null) {
+            return productRepository.findByCategoryNameAndIdGreaterThanOrderByIdAsc(category, afterId, limit);
+        }
+        if (brand != null) {
+            return productRepository.findByBrandAndIdGreaterThanOrderByIdAsc(brand, afterId, limit);
+        }
+        return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit);
+    }
+
     @Override
     public List<ProductDto> getConvertedProducts(List<Product> products) {
-        return products.stream()
-                .map(this::convertToDto)
-                .toList();
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        long queriesBefore = QueryCountInspector.current();
+        List<ProductDto> productDtos = products.stream().map(productMapper::toDto).toList();
+        attachImages(productDtos);
+        log.debug("Converted {} products using {} queries", products.size(), QueryCountInspector.current() - queriesBefore);
+        return productDtos;
+    }
+
+    @Override
+    public void attachImages(Collection<ProductDto> productDtos) {
+        if (productDtos.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = productDtos.stream().map(ProductDto::getId).distinct().toList();
+        Map<Long, List<ImageDto>> imagesByProductId = imageRepository.findMetadataByProductIdIn(productIds)
+                .stream()
+                .collect(Collectors.groupingBy(ImageMetadata::getProductId,
+                        Collectors.mapping(imageMapper::toDto, Collectors.toList())));
+        productDtos.forEach(productDto -> productDto.setImage(imagesByProductId.getOrDefault(productDto.getId(), List.of())));
+    }
+
+    @Override
+    public ProductPageDto getConvertedPage(List<Product> products, int limit) {
+        // A full page means there may be more rows after the last id; a short page ends the listing.
+        Long nextCursor = products.size() == pageSize(limit) ? products.get(products.size() - 1).getId() : null;
+        return new ProductPageDto(getConvertedProducts(products), nextCursor);
     }
 
     @Override
     public ProductDto convertToDto(Product product) {
-        ProductDto productDto = modelMapper.map(product, ProductDto.class);
-        List<Image> images = imageRepository.findByProductId(product.getId());
-        List<ImageDto> imageDtos = images.stream()
-                .map(image -> modelMapper.map(image, ImageDto.class))
-                .toList();
-        productDto.setImage(imageDtos);
-        return productDto;
+        return getConvertedProducts(List.of(product)).get(0);
     }
 }
@@ -3,12 +3,14 @@ package com.quantumluke.quantumshops.services.user;
 import com.quantumluke.quantumshops.dto.UserDto;
 import com.quantumluke.quantumshops.exceptions.AlreadyExistsException;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.UserMapper;
 import com.quantumluke.quantumshops.models.User;
 import com.quantumluke.quantumshops.repository.UserRepository;
 import com.quantumluke.quantumshops.request.CreateUserRequest;
 import com.quantumluke.quantumshops.request.UpdateUserRequest;
+import com.quantumluke.quantumshops.services.product.IProductService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,7 +22,9 @@ import java.util.Optional;
 @Service
 public class UserService implements IUserService{
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+    private final CartMapper cartMapper;
+    private final IProductService productService;
     private final PasswordEncoder passwordEncoder;
 
     @Override
@@ -62,7 +66,11 @@ public class UserService implements IUserService{
 
     @Override
     public UserDto convertUserToDto(User user) {
-        return modelMapper.map(user, UserDto.class);
+        UserDto userDto = userMapper.toDto(user);
+        if (userDto.getCart() != null) {
+            productService.attachImages(cartMapper.productsOf(userDto.getCart()));
+        }
+        return userDto;
     }
 
     @Override
@@ -0,0 +1,103 @@
+package com.quantumluke.quantumshops.benchmark;
+
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures add, update and remove of a single line on carts of 10 to 1000 lines, with the
+ * product-id index and delta totals, against the linear scan and full re-sum they replaced.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.quantumluke.quantumshops.benchmark.CartMutationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartMutationBenchmark {
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private Cart cart;
+    private Product extraProduct;
+    private long middleProductId;
+    private int quantity;
+
+    @Setup
+    public void setUp() {
+        cart = new Cart();
+        for (long id = 1; id <= lines; id++) {
+            cart.addItem(item(product(id), 1));
+        }
+        extraProduct = product(lines + 1L);
+        middleProductId = lines / 2 + 1;
+    }
+
+    @Benchmark
+    public BigDecimal addThenRemove() {
+        CartItem item = item(extraProduct, 1);
+        cart.addItem(item);
+        cart.removeItem(cart.getItem(extraProduct.getId()));
+        return cart.getTotalPrice();
+    }
+
+    @Benchmark
+    public BigDecimal updateQuantity() {
+        CartItem item = cart.getItem(middleProductId);
+        cart.updateItem(item, nextQuantity(), item.getUnitPrice());
+        return cart.getTotalPrice();
+    }
+
+    @Benchmark
+    public BigDecimal legacyUpdateQuantity() {
+        CartItem item = cart.getCartItems().stream()
+                .filter(line -> line.getProduct().getId().equals(middleProductId))
+                .findFirst()
+                .orElseThrow();
+        item.setQuantity(nextQuantity());
+        item.setTotalPrice();
+        BigDecimal total = cart.getCartItems().stream()
+                .map(CartItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        cart.setTotalPrice(total);
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CartMutationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    private int nextQuantity() {
+        quantity = quantity % 9 + 1;
+        return quantity;
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal("19.99"));
+        return product;
+    }
+
+    private static CartItem item(Product product, int quantity) {
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setTotalPrice();
+        return item;
+    }
+}
@@ -0,0 +1,132 @@
+package com.quantumluke.quantumshops.benchmark;
+
+import com.quantumluke.quantumshops.dto.OrderDto;
+import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.dto.UserDto;
+import com.quantumluke.quantumshops.enums.OrderStatus;
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.OrderMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.mappers.UserMapper;
+import com.quantumluke.quantumshops.models.*;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written mappers with the ModelMapper setup they replaced.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.quantumluke.quantumshops.benchmark.DtoMappingBenchmark};
+ * add {@code -prof gc} through JMH options to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+    private UserMapper userMapper;
+
+    private Product product;
+    private Order order;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.typeMap(Product.class, ProductDto.class).addMappings(mapper -> mapper.skip(ProductDto::setImage));
+        productMapper = new ProductMapper();
+        orderMapper = new OrderMapper();
+        userMapper = new UserMapper(orderMapper, new CartMapper(productMapper));
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Phone");
+        product.setBrand("Quantum");
+        product.setPrice(new BigDecimal("499.99"));
+        product.setInventory(25);
+        product.setDescription("A phone");
+        product.setCategory(new Category(1L, "Electronics", 0L, null));
+
+        user = new User();
+        user.setId(1L);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+
+        order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setOrderDate(LocalDate.now());
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setOrderTotalPrice(new BigDecimal("4999.90"));
+        order.setOrderItems(new HashSet<>());
+        for (int i = 0; i < 10; i++) {
+            order.getOrderItems().add(new OrderItem(order, product, i + 1, product.getPrice()));
+        }
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        for (int i = 0; i < 10; i++) {
+            CartItem cartItem = new CartItem();
+            cartItem.setId((long) i);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1);
+            cartItem.setUnitPrice(product.getPrice());
+            cart.getCartItems().add(cartItem);
+        }
+        user.setCart(cart);
+        user.setOrders(new ArrayList<>(List.of(order)));
+    }
+
+    @Benchmark
+    public ProductDto productModelMapper() {
+        return modelMapper.map(product, ProductDto.class);
+    }
+
+    @Benchmark
+    public ProductDto productHandWritten() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public OrderDto orderModelMapper() {
+        return modelMapper.map(order, OrderDto.class);
+    }
+
+    @Benchmark
+    public OrderDto orderHandWritten() {
+        return orderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public UserDto userModelMapper() {
+        return modelMapper.map(user, UserDto.class);
+    }
+
+    @Benchmark
+    public UserDto userHandWritten() {
+        return userMapper.toDto(user);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DtoMappingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,142 @@
+package com.quantumluke.quantumshops.benchmark;
+
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import com.quantumluke.quantumshops.services.image.DatabaseImageStorage;
+import com.quantumluke.quantumshops.services.image.FilesystemImageStorage;
+import com.quantumluke.quantumshops.services.image.LegacyImageColumn;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures image download paths for 1MB to 100MB assets: the old full {@code Blob.getBytes} copy
+ * against streaming from the database blob and {@code FileChannel.transferTo} from the filesystem
+ * store, plus a 1MB range read from the middle of the file. The database blob is an in-memory
+ * {@code SerialBlob}, so those two measure the application's own copying, not the driver's. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.quantumluke.quantumshops.benchmark.ImageDownloadBenchmark};
+ * add {@code -prof gc} through JMH options to compare bytes allocated per download.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ImageDownloadBenchmark {
+    private static final long RANGE_LENGTH = 1024 * 1024;
+
+    @Param({"1", "10", "100"})
+    private int sizeMb;
+
+    private Path root;
+    private DatabaseImageStorage databaseStorage;
+    private FilesystemImageStorage filesystemStorage;
+    private Blob blob;
+    private Image databaseImage;
+    private Image filesystemImage;
+    private DiscardingChannel sink;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] content = new byte[sizeMb * 1024 * 1024];
+        new Random(42).nextBytes(content);
+        root = Files.createTempDirectory("image-benchmark");
+        blob = new SerialBlob(content);
+        ImageContentRepository imageContentRepository = Mockito.mock(ImageContentRepository.class);
+        Mockito.when(imageContentRepository.findById("content"))
+                .thenReturn(Optional.of(new ImageContent("content", content.length, blob)));
+        LegacyImageColumn legacyImageColumn = Mockito.mock(LegacyImageColumn.class);
+        databaseStorage = new DatabaseImageStorage(root.resolve("spool").toString(), imageContentRepository, legacyImageColumn);
+        filesystemStorage = new FilesystemImageStorage(root.resolve("images").toString(),
+                Mockito.mock(ImageContentRepository.class), legacyImageColumn);
+
+        databaseImage = new Image();
+        databaseImage.setContentHash("content");
+        databaseImage.setFileSize((long) content.length);
+        filesystemImage = new Image();
+        filesystemStorage.store(filesystemImage, new ByteArrayInputStream(content));
+        sink = new DiscardingChannel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long legacyBlobCopy() throws Exception {
+        byte[] bytes = blob.getBytes(1, (int) blob.length());
+        return sink.write(ByteBuffer.wrap(bytes));
+    }
+
+    @Benchmark
+    public long databaseStream() throws IOException {
+        databaseStorage.transferTo(databaseImage, sink);
+        return sink.written;
+    }
+
+    @Benchmark
+    public long filesystemTransfer() throws IOException {
+        filesystemStorage.transferTo(filesystemImage, sink);
+        return sink.written;
+    }
+
+    @Benchmark
+    public long filesystemRange() throws IOException {
+        long size = filesystemStorage.size(filesystemImage);
+        filesystemStorage.transferTo(filesystemImage, size / 2, Math.min(RANGE_LENGTH, size / 2), sink);
+        return sink.written;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ImageDownloadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Stands in for the response channel: consumes everything written to it.
+     */
+    private static final class DiscardingChannel implements WritableByteChannel {
+        private long written;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int remaining = source.remaining();
+            source.position(source.limit());
+            written += remaining;
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
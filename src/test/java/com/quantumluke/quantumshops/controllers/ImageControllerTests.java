@@ -0,0 +1,161 @@
+package com.quantumluke.quantumshops.controllers;
+
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.response.ApiResponse;
+import com.quantumluke.quantumshops.services.image.IImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageControllerTests {
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private IImageService imageService;
+    private ImageController imageController;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageService = mock(IImageService.class);
+        imageController = new ImageController(imageService);
+        ReflectionTestUtils.setField(imageController, "maxBundleProducts", 3);
+        Image image = new Image();
+        image.setId(1L);
+        image.setFilename("digits.txt");
+        image.setFileType("text/plain");
+        image.setContentHash("abc");
+        when(imageService.getImageById(1L)).thenReturn(image);
+        when(imageService.getImageSize(image)).thenReturn((long) CONTENT.length);
+        doAnswer(invocation -> {
+            long position = invocation.getArgument(1);
+            long count = invocation.getArgument(2);
+            WritableByteChannel target = invocation.getArgument(3);
+            target.write(ByteBuffer.wrap(CONTENT, (int) position, (int) count));
+            return null;
+        }).when(imageService).transferImage(eq(image), anyLong(), anyLong(), any());
+    }
+
+    @DisplayName("Should stream the whole image without a Range header")
+    @Test
+    void downloadImage_NoRange_ReturnsWholeContent() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10, response.getHeaders().getContentLength());
+        assertEquals("0123456789", body(response));
+    }
+
+    @DisplayName("Should return partial content for a single range")
+    @Test
+    void downloadImage_SingleRange_ReturnsPartialContent() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, null, "bytes=2-4", null, null);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 2-4/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(3, response.getHeaders().getContentLength());
+        assertEquals("234", body(response));
+    }
+
+    @DisplayName("Should return multipart byteranges for several ranges")
+    @Test
+    void downloadImage_MultipleRanges_ReturnsMultipartByteranges() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, null, "bytes=0-1,-2", null, null);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("multipart", response.getHeaders().getContentType().getType());
+        assertEquals("byteranges", response.getHeaders().getContentType().getSubtype());
+        String body = body(response);
+        assertEquals(response.getHeaders().getContentLength(), body.length());
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n"));
+    }
+
+    @DisplayName("Should reject a range beyond the end of the image")
+    @Test
+    void downloadImage_UnsatisfiableRange_ReturnsRangeNotSatisfiable() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, null, "bytes=20-30", null, null);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @DisplayName("Should ignore the range when If-Range does not match")
+    @Test
+    void downloadImage_StaleIfRange_ReturnsWholeContent() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, null, "bytes=2-4", "\"old\"", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("0123456789", body(response));
+    }
+
+    @DisplayName("Should mark a content-hash URL as cacheable forever")
+    @Test
+    void downloadImage_HashedUrl_ReturnsImmutableCacheControl() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, "abc", null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("max-age=31536000, public, immutable", response.getHeaders().getCacheControl());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+    }
+
+    @DisplayName("Should return not modified when the ETag matches")
+    @Test
+    void downloadImage_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, null, null, null, "\"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+        assertNull(response.getBody());
+        verify(imageService, never()).transferImage(any(), anyLong(), anyLong(), any());
+    }
+
+    @DisplayName("Should redirect a URL for replaced content to the current one")
+    @Test
+    void downloadImage_StaleHash_RedirectsToCurrentUrl() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = imageController.downloadImage(1L, "old", null, null, null);
+
+        assertEquals(HttpStatus.FOUND, response.getStatusCode());
+        assertEquals("/api/v1/images/image/download/1/abc", response.getHeaders().getLocation().toString());
+    }
+
+    @DisplayName("Should reject a bundle of more products than the cap")
+    @Test
+    void downloadImageBundle_TooManyProducts_ReturnsBadRequest() throws Exception {
+        ResponseEntity<?> response = imageController.downloadImageBundle(List.of(1L, 2L, 3L, 4L));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("A bundle can contain at most 3 products", ((ApiResponse) response.getBody()).getMessage());
+        verify(imageService, never()).writeImageBundle(any(), any());
+    }
+
+    @DisplayName("Should bundle each requested product once")
+    @Test
+    void downloadImageBundle_RepeatedIds_BundlesDistinctProducts() throws Exception {
+        ResponseEntity<?> response = imageController.downloadImageBundle(List.of(1L, 2L, 1L, 3L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ((StreamingResponseBody) response.getBody()).writeTo(new ByteArrayOutputStream());
+        verify(imageService).writeImageBundle(eq(List.of(1L, 2L, 3L)), any());
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -3,7 +3,9 @@ package com.quantumluke.quantumshops.controllers;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.dto.ProductPageDto;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
 import com.quantumluke.quantumshops.models.Product;
 import com.quantumluke.quantumshops.request.AddProductRequest;
@@ -25,31 +27,31 @@ class ProductControllerTests {
     @BeforeEach
     void setUp() {
         productService = mock(IProductService.class);
-        productController = new ProductController(productService);
+        productController = new ProductController(productService, new ObjectMapper());
     }
 
     @DisplayName("Should return all products successfully")
     @Test
     void getAllProducts_ReturnsAllProducts() {
         List<Product> products = Arrays.asList(new Product(), new Product());
-        List<ProductDto> productDtos = Arrays.asList(new ProductDto(), new ProductDto());
-        when(productService.getAllProducts()).thenReturn(products);
-        when(productService.getConvertedProducts(products)).thenReturn(productDtos);
+        ProductPageDto page = new ProductPageDto(Arrays.asList(new ProductDto(), new ProductDto()), null);
+        when(productService.getAllProducts(0L, 20)).thenReturn(products);
+        when(productService.getConvertedPage(products, 20)).thenReturn(page);
 
-        ResponseEntity<ApiResponse> response = productController.getAllProducts();
+        ResponseEntity<ApiResponse> response = productController.getAllProducts(0L, 20, null);
 
         assertNotNull(response.getBody());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Products fetched successfully", response.getBody().getMessage());
-        assertEquals(productDtos, response.getBody().getData());
+        assertEquals(page, response.getBody().getData());
     }
 
     @DisplayName("Should handle exception on getAllProducts")
     @Test
     void getAllProducts_ThrowsException_ReturnsServerError() {
-        when(productService.getAllProducts()).thenThrow(new RuntimeException("Unexpected"));
+        when(productService.getAllProducts(0L, 20)).thenThrow(new RuntimeException("Unexpected"));
 
-        ResponseEntity<ApiResponse> response = productController.getAllProducts();
+        ResponseEntity<ApiResponse> response = productController.getAllProducts(0L, 20, null);
 
         assertNotNull(response.getBody());
 
@@ -65,7 +67,7 @@ class ProductControllerTests {
         when(productService.getProductById(1L)).thenReturn(product);
         when(productService.convertToDto(product)).thenReturn(dto);
 
-        ResponseEntity<ApiResponse> response = productController.getProductById(1L);
+        ResponseEntity<ApiResponse> response = productController.getProductById(1L, null);
 
         assertNotNull(response.getBody());
 
@@ -79,7 +81,7 @@ class ProductControllerTests {
     void getProductById_NonExistingProduct_ReturnsNotFound() {
         when(productService.getProductById(2L)).thenThrow(new ResourceNotFoundException("Product not found"));
 
-        ResponseEntity<ApiResponse> response = productController.getProductById(2L);
+        ResponseEntity<ApiResponse> response = productController.getProductById(2L, null);
 
         assertNotNull(response.getBody());
 
@@ -93,7 +95,7 @@ class ProductControllerTests {
     void getProductById_Exception_ReturnsServerError() {
         when(productService.getProductById(3L)).thenThrow(new RuntimeException("failure!"));
 
-        ResponseEntity<ApiResponse> response = productController.getProductById(3L);
+        ResponseEntity<ApiResponse> response = productController.getProductById(3L, null);
 
         assertNotNull(response.getBody());
 
@@ -101,22 +103,62 @@ class ProductControllerTests {
         assertTrue(response.getBody().getMessage().startsWith("Error fetching product: "));
     }
 
+    @DisplayName("Should return not modified when product ETag matches")
+    @Test
+    void getProductById_MatchingETag_ReturnsNotModified() {
+        when(productService.getProductVersion(1L)).thenReturn(4L);
+
+        ResponseEntity<ApiResponse> response = productController.getProductById(1L, "\"product-1-4\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"product-1-4\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(productService, never()).getProductById(anyLong());
+        verify(productService, never()).convertToDto(any());
+    }
+
+    @DisplayName("Should return product with ETag when version changed")
+    @Test
+    void getProductById_StaleETag_ReturnsProductWithETag() {
+        Product product = new Product();
+        when(productService.getProductVersion(1L)).thenReturn(5L);
+        when(productService.getProductById(1L)).thenReturn(product);
+        when(productService.convertToDto(product)).thenReturn(new ProductDto());
+
+        ResponseEntity<ApiResponse> response = productController.getProductById(1L, "\"product-1-4\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"product-1-5\"", response.getHeaders().getETag());
+    }
+
+    @DisplayName("Should return not modified when listing ETag matches")
+    @Test
+    void getAllProducts_MatchingETag_ReturnsNotModified() {
+        when(productService.getAllProductVersions(0L, 20)).thenReturn(List.of());
+        String eTag = productController.getAllProducts(0L, 20, null).getHeaders().getETag();
+
+        ResponseEntity<ApiResponse> response = productController.getAllProducts(0L, 20, eTag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(productService, times(1)).getAllProducts(0L, 20);
+    }
+
     @DisplayName("Should return products by category")
     @Test
     void getProductsByCategory_ReturnsProducts() {
         String category = "Electronics";
         List<Product> products = Collections.singletonList(new Product());
-        List<ProductDto> productDtos = Collections.singletonList(new ProductDto());
-        when(productService.getProductsByCategory(category)).thenReturn(products);
-        when(productService.getConvertedProducts(products)).thenReturn(productDtos);
+        ProductPageDto page = new ProductPageDto(Collections.singletonList(new ProductDto()), null);
+        when(productService.getProductsByCategory(category, 0L, 20)).thenReturn(products);
+        when(productService.getConvertedPage(products, 20)).thenReturn(page);
 
-        ResponseEntity<ApiResponse> response = productController.getProductsByCategory(category);
+        ResponseEntity<ApiResponse> response = productController.getProductsByCategory(category, 0L, 20, null);
 
         assertNotNull(response.getBody());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Products fetched successfully", response.getBody().getMessage());
-        assertEquals(productDtos, response.getBody().getData());
+        assertEquals(page, response.getBody().getData());
     }
 
     @DisplayName("Should return products by brand")
@@ -124,17 +166,17 @@ class ProductControllerTests {
     void getProductsByBrand_ReturnsProducts() {
         String brand = "Apple";
         List<Product> products = Collections.singletonList(new Product());
-        List<ProductDto> productDtos = Collections.singletonList(new ProductDto());
-        when(productService.getProductsByBrand(brand)).thenReturn(products);
-        when(productService.getConvertedProducts(products)).thenReturn(productDtos);
+        ProductPageDto page = new ProductPageDto(Collections.singletonList(new ProductDto()), null);
+        when(productService.getProductsByBrand(brand, 0L, 20)).thenReturn(products);
+        when(productService.getConvertedPage(products, 20)).thenReturn(page);
 
-        ResponseEntity<ApiResponse> response = productController.getProductsByBrand(brand);
+        ResponseEntity<ApiResponse> response = productController.getProductsByBrand(brand, 0L, 20, null);
 
         assertNotNull(response.getBody());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Products fetched successfully", response.getBody().getMessage());
-        assertEquals(productDtos, response.getBody().getData());
+        assertEquals(page, response.getBody().getData());
     }
 
     @DisplayName("Should return products by category and brand")
@@ -143,17 +185,17 @@ class ProductControllerTests {
         String category = "Electronics";
         String brand = "Apple";
         List<Product> products = Collections.singletonList(new Product());
-        List<ProductDto> productDtos = Collections.singletonList(new ProductDto());
-        when(productService.getProductsByCategoryAndBrand(category, brand)).thenReturn(products);
-        when(productService.getConvertedProducts(products)).thenReturn(productDtos);
+        ProductPageDto page = new ProductPageDto(Collections.singletonList(new ProductDto()), null);
+        when(productService.getProductsByCategoryAndBrand(category, brand, 0L, 20)).thenReturn(products);
+        when(productService.getConvertedPage(products, 20)).thenReturn(page);
 
-        ResponseEntity<ApiResponse> response = productController.getProductsByCategoryAndBrand(category, brand);
+        ResponseEntity<ApiResponse> response = productController.getProductsByCategoryAndBrand(category, brand, 0L, 20, null);
 
         assertNotNull(response.getBody());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Products fetched successfully", response.getBody().getMessage());
-        assertEquals(productDtos, response.getBody().getData());
+        assertEquals(page, response.getBody().getData());
     }
     
     @DisplayName("Should return products by name")
@@ -161,17 +203,17 @@ class ProductControllerTests {
     void getProductsByName_ReturnsProducts() {
         String name = "iPhone";
         List<Product> products = Collections.singletonList(new Product());
-        List<ProductDto> productDtos = Collections.singletonList(new ProductDto());
-        when(productService.getProductsByName(name)).thenReturn(products);
-        when(productService.getConvertedProducts(products)).thenReturn(productDtos);
+        ProductPageDto page = new ProductPageDto(Collections.singletonList(new ProductDto()), null);
+        when(productService.getProductsByName(name, 0L, 20)).thenReturn(products);
+        when(productService.getConvertedPage(products, 20)).thenReturn(page);
         
-        ResponseEntity<ApiResponse> response = productController.getProductsByName(name);
+        ResponseEntity<ApiResponse> response = productController.getProductsByName(name, 0L, 20, null);
         
         assertNotNull(response.getBody());
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Products fetched successfully", response.getBody().getMessage());
-        assertEquals(productDtos, response.getBody().getData());
+        assertEquals(page, response.getBody().getData());
     }
     
     @DisplayName("Should return success")
@@ -0,0 +1,134 @@
+package com.quantumluke.quantumshops.mappers;
+
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.dto.ImageDto;
+import com.quantumluke.quantumshops.dto.OrderDto;
+import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.dto.UserDto;
+import com.quantumluke.quantumshops.enums.OrderStatus;
+import com.quantumluke.quantumshops.models.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The hand-written mappers produce the same DTOs as the ModelMapper setup they replaced, which
+ * skipped product images so they could be attached in bulk.
+ */
+public class DtoMapperTests {
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private ImageMapper imageMapper;
+    private OrderMapper orderMapper;
+    private CartMapper cartMapper;
+    private UserMapper userMapper;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.typeMap(Product.class, ProductDto.class).addMappings(mapper -> mapper.skip(ProductDto::setImage));
+        productMapper = new ProductMapper();
+        imageMapper = new ImageMapper();
+        orderMapper = new OrderMapper();
+        cartMapper = new CartMapper(productMapper);
+        userMapper = new UserMapper(orderMapper, cartMapper);
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Phone");
+        product.setBrand("Quantum");
+        product.setPrice(new BigDecimal("499.99"));
+        product.setInventory(25);
+        product.setDescription("A phone");
+        product.setCategory(new Category(1L, "Electronics", 0L, null));
+
+        user = new User();
+        user.setId(7L);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+
+        Order order = new Order();
+        order.setId(3L);
+        order.setUser(user);
+        order.setOrderDate(LocalDate.of(2024, 5, 1));
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setOrderTotalPrice(new BigDecimal("999.98"));
+        order.setOrderItems(new HashSet<>());
+        order.getOrderItems().add(new OrderItem(order, product, 2, product.getPrice()));
+
+        Cart cart = new Cart();
+        cart.setId(5L);
+        for (long id = 1; id <= 3; id++) {
+            CartItem cartItem = new CartItem();
+            cartItem.setId(id);
+            cartItem.setProduct(product);
+            cartItem.setQuantity((int) id);
+            cartItem.setUnitPrice(product.getPrice());
+            cartItem.setTotalPrice();
+            cart.addItem(cartItem);
+        }
+        user.setCart(cart);
+        user.setOrders(new ArrayList<>(List.of(order)));
+    }
+
+    @Test
+    void productMapper_matchesModelMapper() {
+        assertEquals(modelMapper.map(product, ProductDto.class), productMapper.toDto(product));
+    }
+
+    @Test
+    void imageMapper_matchesModelMapper() {
+        Image image = new Image();
+        image.setId(9L);
+        image.setFilename("phone.png");
+        image.setFileType("image/png");
+        image.setContentHash("abc123");
+        image.setFileSize(2048L);
+        image.setWidth(640);
+        image.setHeight(480);
+        image.setProduct(product);
+
+        ImageDto imageDto = imageMapper.toDto(image);
+
+        assertEquals(modelMapper.map(image, ImageDto.class), imageDto);
+        assertEquals(image.getDownloadUrl(), imageDto.getDownloadUrl());
+    }
+
+    @Test
+    void orderMapper_matchesModelMapper() {
+        Order order = user.getOrders().get(0);
+
+        OrderDto orderDto = orderMapper.toDto(order);
+
+        assertEquals(modelMapper.map(order, OrderDto.class), orderDto);
+        assertEquals(7L, orderDto.getUserId());
+        assertEquals("Phone", orderDto.getOrderItems().get(0).getProductName());
+    }
+
+    @Test
+    void cartMapper_matchesModelMapper() {
+        CartDto cartDto = cartMapper.toDto(user.getCart());
+
+        assertEquals(modelMapper.map(user.getCart(), CartDto.class), cartDto);
+        assertEquals(3, cartMapper.productsOf(cartDto).size());
+    }
+
+    @Test
+    void userMapper_matchesModelMapper() {
+        UserDto userDto = userMapper.toDto(user);
+
+        assertEquals(modelMapper.map(user, UserDto.class), userDto);
+        assertEquals(3, userDto.getCart().getItems().size());
+    }
+}
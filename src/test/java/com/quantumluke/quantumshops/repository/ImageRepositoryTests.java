@@ -0,0 +1,98 @@
+package com.quantumluke.quantumshops.repository;
+
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.models.Product;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Image listings must read metadata only; the bytes are selected on download and nowhere else.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:images;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.quantumluke.quantumshops.repository.ImageRepositoryTests$RecordingStatementInspector"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ImageRepositoryTests {
+    private static final Pattern IMAGE_BYTES = Pattern.compile("image_content|\\.image\\b", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ImageContentRepository imageContentRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Category category = entityManager.persist(new Category("Cameras"));
+        product = new Product();
+        product.setName("Lens");
+        product.setBrand("Optix");
+        product.setPrice(BigDecimal.TEN);
+        product.setCategory(category);
+        entityManager.persist(product);
+        byte[] bytes = "packshot".getBytes();
+        entityManager.persist(new ImageContent("hash", bytes.length, BlobProxy.generateProxy(bytes)));
+        for (String filename : List.of("front.png", "back.png")) {
+            Image image = new Image();
+            image.setFilename(filename);
+            image.setFileType("image/png");
+            image.setContentHash("hash");
+            image.setFileSize((long) bytes.length);
+            image.setProduct(product);
+            entityManager.persist(image);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void listings_neverSelectImageBytes() {
+        assertEquals(2, imageRepository.findMetadataByProductId(product.getId()).size());
+        assertEquals(2, imageRepository.findMetadataByProductIdIn(List.of(product.getId())).size());
+        assertEquals(2, imageRepository.findAll().size());
+        assertEquals(2, productRepository.findById(product.getId()).orElseThrow().getImage().size());
+
+        assertFalse(RecordingStatementInspector.STATEMENTS.isEmpty());
+        RecordingStatementInspector.STATEMENTS.forEach(sql ->
+                assertFalse(IMAGE_BYTES.matcher(sql).find(), () -> "Listing selected image bytes: " + sql));
+    }
+
+    @Test
+    void download_selectsBytesOnce() throws Exception {
+        ImageContent content = imageContentRepository.findById("hash").orElseThrow();
+
+        assertEquals("packshot", new String(content.getContent().getBytes(1, (int) content.getContent().length())));
+        assertEquals(1, RecordingStatementInspector.STATEMENTS.stream().filter(sql -> IMAGE_BYTES.matcher(sql).find()).count());
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.quantumluke.quantumshops.repository;
+
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Facet counts are grouped by lower-cased brand, so the result does not depend on the collation.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:products;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProductRepositoryTests {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void countByCategoryAndBrand_groupsBrandsIgnoringCase() {
+        Category category = entityManager.persist(new Category("Shoes"));
+        for (String brand : List.of("Nike", "nike", "NIKE", "Adidas")) {
+            Product product = new Product();
+            product.setName("Runner " + brand);
+            product.setBrand(brand);
+            product.setCategory(category);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+
+        List<ProductFacetCount> rows = productRepository.countByCategoryAndBrand();
+
+        assertEquals(2, rows.size());
+        ProductFacetCount nike = rows.stream().filter(row -> "nike".equals(row.getBrand())).findFirst().orElseThrow();
+        assertEquals(category.getId(), nike.getCategoryId());
+        assertEquals(3, nike.getProductCount());
+    }
+}
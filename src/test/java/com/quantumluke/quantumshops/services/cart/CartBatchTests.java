@@ -0,0 +1,88 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.dto.CartItemDto;
+import com.quantumluke.quantumshops.enums.CartItemOperationType;
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.request.CartItemOperation;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A batch returns the cart as it was written: lines it added come back with the ids they were stored
+ * under.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:cart-batch;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartItemService.class, DatabaseCartStore.class, CartUpdateRetry.class, CartMapper.class, ProductMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CartBatchTests {
+    @Autowired
+    private CartItemService cartItemService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoBean
+    private IProductService productService;
+
+    @Test
+    void applyOperations_returnsStoredIdsOfNewLines() {
+        List<Long> productIds = new ArrayList<>();
+        for (String name : List.of("Lens", "Tripod", "Strap")) {
+            Product product = new Product();
+            product.setName(name);
+            product.setPrice(new BigDecimal("5"));
+            productIds.add(productRepository.save(product).getId());
+        }
+        Long cartId = transactionTemplate.execute(status -> {
+            Cart cart = new Cart();
+            CartItem item = new CartItem();
+            item.setProduct(productRepository.getReferenceById(productIds.get(0)));
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("5"));
+            item.setTotalPrice();
+            cart.addItem(item);
+            return cartRepository.save(cart).getId();
+        });
+
+        CartDto cartDto = cartItemService.applyOperations(cartId, List.of(
+                new CartItemOperation(CartItemOperationType.ADD, productIds.get(1), 2),
+                new CartItemOperation(CartItemOperationType.ADD, productIds.get(2), 1),
+                new CartItemOperation(CartItemOperationType.SET_QUANTITY, productIds.get(0), 3)));
+
+        Map<Long, Long> storedIds = transactionTemplate.execute(status ->
+                cartRepository.findWithItemsById(cartId).orElseThrow().getCartItems().stream()
+                        .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getId)));
+        assertEquals(3, cartDto.getItems().size());
+        for (CartItemDto item : cartDto.getItems()) {
+            assertNotNull(item.getId());
+            assertEquals(storedIds.get(item.getProduct().getId()), item.getId());
+        }
+        assertEquals(0, new BigDecimal("30").compareTo(cartDto.getTotalPrice()));
+    }
+}
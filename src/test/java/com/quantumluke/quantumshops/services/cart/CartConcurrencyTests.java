@@ -0,0 +1,115 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads adding to the same cart lines at once: every add must land exactly once, and the
+ * cart total must still equal the sum of its lines.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-concurrency;MODE=MySQL;NON_KEYWORDS=USER",
+        "carts.retry.max-attempts=100",
+        "carts.retry.initial-backoff-ms=1",
+        "carts.retry.max-backoff-ms=20"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartItemService.class, CartService.class, DatabaseCartStore.class, CartUpdateRetry.class,
+        CartMapper.class, ProductMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CartConcurrencyTests {
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired
+    private CartItemService cartItemService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoBean
+    private IProductService productService;
+
+    @Test
+    void concurrentAdds_loseNoQuantity() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        Long cartId = transactionTemplate.execute(status -> {
+            Cart cart = new Cart();
+            for (String name : List.of("Lens", "Tripod")) {
+                Product product = new Product();
+                product.setName(name);
+                product.setPrice(new BigDecimal("1.50"));
+                productRepository.save(product);
+                productIds.add(product.getId());
+                CartItem item = new CartItem();
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setUnitPrice(product.getPrice());
+                item.setTotalPrice();
+                cart.addItem(item);
+            }
+            return cartRepository.save(cart).getId();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Long productId = productIds.get(thread % productIds.size());
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    cartItemService.addItemToCart(cartId, productId, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Cart cart = cartRepository.findWithItemsById(cartId).orElseThrow();
+            int perLine = 1 + THREADS / productIds.size() * ADDS_PER_THREAD;
+            BigDecimal sum = BigDecimal.ZERO;
+            for (CartItem item : cart.getCartItems()) {
+                assertEquals(perLine, item.getQuantity());
+                assertEquals(0, item.getUnitPrice().multiply(BigDecimal.valueOf(perLine)).compareTo(item.getTotalPrice()));
+                sum = sum.add(item.getTotalPrice());
+            }
+            assertEquals(0, sum.compareTo(cart.getTotalPrice()));
+        });
+        assertEquals(THREADS * ADDS_PER_THREAD, cartItemService.getRetryStats().getUpdates());
+        assertEquals(0, cartItemService.getRetryStats().getExhausted());
+        assertEquals(cartItemService.getRetryStats().getConflicts(), cartItemService.getRetryStats().getRetries());
+    }
+}
@@ -0,0 +1,132 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.enums.CartItemOperationType;
+import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.request.CartItemOperation;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CartItemServiceTests {
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private IProductService productService;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private final CartUpdateRetry cartUpdateRetry = new CartUpdateRetry(3, 0, 0);
+    private CartItemService cartItemService;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        cartItemService = new CartItemService(productService, productRepository, new CartMapper(new ProductMapper()),
+                new DatabaseCartStore(cartRepository, transactionTemplate, cartUpdateRetry), cartUpdateRetry);
+        cart = new Cart();
+        cart.setId(1L);
+        for (long id = 1; id <= 3; id++) {
+            CartItem item = new CartItem();
+            item.setProduct(product(id, "10"));
+            item.setQuantity(1);
+            item.setUnitPrice(item.getProduct().getPrice());
+            item.setTotalPrice();
+            cart.addItem(item);
+        }
+        when(cartRepository.findWithItemsById(1L)).thenReturn(Optional.of(cart));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void applyOperations_loadsNewProductsOnceAndSavesOnce() {
+        when(productRepository.findAllById(Set.of(4L, 5L))).thenReturn(List.of(product(4, "2.50"), product(5, "1")));
+        when(cartRepository.saveAndFlush(cart)).thenReturn(cart);
+
+        CartDto result = cartItemService.applyOperations(1L, List.of(
+                new CartItemOperation(CartItemOperationType.ADD, 4L, 2),
+                new CartItemOperation(CartItemOperationType.ADD, 5L, 3),
+                new CartItemOperation(CartItemOperationType.ADD, 1L, 1),
+                new CartItemOperation(CartItemOperationType.SET_QUANTITY, 2L, 4),
+                new CartItemOperation(CartItemOperationType.REMOVE, 3L, 0)));
+
+        assertEquals(4, result.getItems().size());
+        assertEquals(0, new BigDecimal("68").compareTo(result.getTotalPrice()));
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(cartRepository, times(1)).saveAndFlush(any());
+        verify(productService, never()).getProductById(any());
+        verify(productService).attachImages(argThat(products -> products.size() == 4));
+    }
+
+    @Test
+    void applyOperations_unknownProduct_failsBeforeChangingCart() {
+        when(productRepository.findAllById(Set.of(9L))).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> cartItemService.applyOperations(1L, List.of(
+                new CartItemOperation(CartItemOperationType.REMOVE, 1L, 0),
+                new CartItemOperation(CartItemOperationType.ADD, 9L, 1))));
+
+        assertEquals(3, cart.getCartItems().size());
+        verify(cartRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updateItemQuantity_conflict_retriesFromFreshLoad() {
+        when(cartRepository.save(cart))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L))
+                .thenReturn(cart);
+
+        cartItemService.updateItemQuantity(1L, 2L, 5);
+
+        assertEquals(5, cart.getItem(2L).getQuantity());
+        verify(cartRepository, times(2)).findWithItemsById(1L);
+        assertEquals(1, cartItemService.getRetryStats().getConflicts());
+        assertEquals(1, cartItemService.getRetryStats().getRetries());
+    }
+
+    @Test
+    void updateItemQuantity_persistentConflict_givesUpAfterMaxAttempts() {
+        when(cartRepository.save(cart)).thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> cartItemService.updateItemQuantity(1L, 2L, 5));
+
+        verify(cartRepository, times(3)).save(cart);
+        assertEquals(1, cartItemService.getRetryStats().getExhausted());
+    }
+
+    private static Product product(long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("product" + id);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
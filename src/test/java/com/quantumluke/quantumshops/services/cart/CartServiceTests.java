@@ -0,0 +1,127 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.dto.CartItemDto;
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.models.User;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A cart read is one select: the cart, its items, their products and categories in a single
+ * fetch join, and nothing is written back. Product images are attached in bulk afterwards.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:carts;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.quantumluke.quantumshops.services.cart.CartServiceTests$RecordingStatementInspector"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartService.class, DatabaseCartStore.class, CartUpdateRetry.class, CartMapper.class, ProductMapper.class})
+public class CartServiceTests {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CartService cartService;
+    @MockitoBean
+    private IProductService productService;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("shopper@example.com");
+        entityManager.persist(user);
+        cart = new Cart();
+        cart.setUser(user);
+        entityManager.persist(cart);
+        Category category = entityManager.persist(new Category("Cameras"));
+        for (String name : List.of("Lens", "Tripod", "Strap")) {
+            Product product = new Product();
+            product.setName(name);
+            product.setBrand("Optix");
+            product.setPrice(BigDecimal.TEN);
+            product.setCategory(category);
+            entityManager.persist(product);
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setQuantity(2);
+            item.setUnitPrice(product.getPrice());
+            item.setTotalPrice();
+            cart.addItem(item);
+            entityManager.persist(item);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void getCartDto_loadsItemsAndProductsWithOneSelect() {
+        CartDto result = cartService.getCartDto(cart.getId());
+        entityManager.flush();
+
+        assertEquals(3, result.getItems().size());
+        assertEquals(0, new BigDecimal("60").compareTo(result.getTotalPrice()));
+        for (CartItemDto item : result.getItems()) {
+            assertEquals("Optix", item.getProduct().getBrand());
+            assertEquals("Cameras", item.getProduct().getCategory().getName());
+        }
+        assertEquals(1, RecordingStatementInspector.STATEMENTS.size(), RecordingStatementInspector.STATEMENTS::toString);
+        assertTrue(RecordingStatementInspector.STATEMENTS.get(0).trim().toLowerCase().startsWith("select"));
+        verify(productService).attachImages(argThat(products -> products.size() == 3));
+    }
+
+    @Test
+    void getCartById_andTotalPrice_neverWrite() {
+        cartService.getCartById(cart.getId());
+        cartService.getTotalPrice(cart.getId());
+        entityManager.flush();
+
+        assertEquals(2, RecordingStatementInspector.STATEMENTS.size(), RecordingStatementInspector.STATEMENTS::toString);
+        RecordingStatementInspector.STATEMENTS.forEach(sql ->
+                assertTrue(sql.trim().toLowerCase().startsWith("select"), () -> "Cart read wrote: " + sql));
+    }
+
+    @Test
+    void cartMutations_keepIndexAndTotalInStep() {
+        Cart loaded = cartService.getCartById(cart.getId());
+        CartItem item = loaded.getItem(loaded.getCartItems().iterator().next().getProduct().getId());
+
+        loaded.updateItem(item, 5, new BigDecimal("2.50"));
+        assertEquals(0, new BigDecimal("52.50").compareTo(loaded.getTotalPrice()));
+        loaded.removeItem(item);
+        assertNull(loaded.getItem(item.getProduct().getId()));
+        assertEquals(0, new BigDecimal("40").compareTo(loaded.getTotalPrice()));
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
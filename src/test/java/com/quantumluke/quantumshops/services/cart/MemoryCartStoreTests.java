@@ -0,0 +1,174 @@
+package com.quantumluke.quantumshops.services.cart;
+
+import com.quantumluke.quantumshops.dto.CartDto;
+import com.quantumluke.quantumshops.enums.CartItemOperationType;
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.models.User;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.repository.UserRepository;
+import com.quantumluke.quantumshops.request.CartItemOperation;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cart changes are served from memory, reach the database only when flushed, and are flushed on
+ * checkout reads and on shutdown.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-memory;MODE=MySQL;NON_KEYWORDS=USER",
+        "carts.store.type=memory",
+        "carts.store.flush-interval-ms=3600000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartItemService.class, CartService.class, MemoryCartStore.class, CartUpdateRetry.class,
+        CartMapper.class, ProductMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MemoryCartStoreTests {
+    @Autowired
+    private CartItemService cartItemService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private MemoryCartStore cartStore;
+    @MockitoSpyBean
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoBean
+    private IProductService productService;
+    private User user;
+    private Product lens;
+    private Product tripod;
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("shopper" + System.nanoTime() + "@example.com");
+        userRepository.save(user);
+        lens = productRepository.save(product("Lens", "100"));
+        tripod = productRepository.save(product("Tripod", "40"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartId = cartRepository.save(cart).getId();
+        when(productService.getProductById(lens.getId())).thenReturn(lens);
+        when(productService.getProductById(tripod.getId())).thenReturn(tripod);
+    }
+
+    @Test
+    void mutations_areServedFromMemoryUntilFlushed() {
+        cartItemService.addItemToCart(cartId, lens.getId(), 1);
+        cartItemService.addItemToCart(cartId, lens.getId(), 2);
+        cartItemService.addItemToCart(cartId, tripod.getId(), 1);
+        cartItemService.removeItemFromCart(cartId, tripod.getId());
+
+        CartDto cart = cartService.getCartDto(cartId);
+        assertEquals(1, cart.getItems().size());
+        assertEquals(0, new BigDecimal("300").compareTo(cartService.getTotalPrice(cartId)));
+        assertTrue(storedQuantities().isEmpty());
+
+        cartStore.flushChanged();
+
+        assertEquals(Map.of(lens.getId(), 3), storedQuantities());
+        assertEquals(0, new BigDecimal("300").compareTo(storedTotal()));
+    }
+
+    @Test
+    void flushedCart_keepsWritingLaterChanges() {
+        cartItemService.applyOperations(cartId, List.of(
+                new CartItemOperation(CartItemOperationType.ADD, lens.getId(), 1),
+                new CartItemOperation(CartItemOperationType.ADD, tripod.getId(), 2)));
+        cartStore.flushChanged();
+
+        cartItemService.updateItemQuantity(cartId, tripod.getId(), 5);
+        cartItemService.removeItemFromCart(cartId, lens.getId());
+        cartStore.flushChanged();
+
+        assertEquals(Map.of(tripod.getId(), 5), storedQuantities());
+        assertEquals(0, new BigDecimal("200").compareTo(storedTotal()));
+    }
+
+    @Test
+    void checkoutRead_flushesPendingChangesInCallerTransaction() {
+        cartItemService.addItemToCart(cartId, lens.getId(), 2);
+
+        Cart cart = transactionTemplate.execute(status -> {
+            Cart loaded = cartService.getCartByUserId(user.getId());
+            assertEquals(2, loaded.getItem(lens.getId()).getQuantity());
+            return loaded;
+        });
+
+        assertEquals(cartId, cart.getId());
+        assertEquals(Map.of(lens.getId(), 2), storedQuantities());
+    }
+
+    @Test
+    void backgroundFlush_skipsCartWrittenByOpenCheckout() {
+        cartItemService.addItemToCart(cartId, lens.getId(), 2);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cartService.getCartByUserId(user.getId());
+            CompletableFuture.runAsync(cartStore::flushChanged).join();
+            cartService.clearCart(cartId);
+        });
+
+        verify(cartRepository, times(1)).findWithItemsByIdIn(any());
+        assertFalse(cartRepository.existsById(cartId));
+    }
+
+    @Test
+    void shutdown_flushesEverything() throws Exception {
+        cartItemService.addItemToCart(cartId, tripod.getId(), 4);
+
+        cartStore.shutdown();
+
+        assertEquals(Map.of(tripod.getId(), 4), storedQuantities());
+    }
+
+    private Map<Long, Integer> storedQuantities() {
+        return transactionTemplate.execute(status -> cartRepository.findWithItemsById(cartId).orElseThrow()
+                .getCartItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getQuantity)));
+    }
+
+    private BigDecimal storedTotal() {
+        return cartRepository.findTotalPriceById(cartId).orElseThrow();
+    }
+
+    private static Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
@@ -0,0 +1,106 @@
+package com.quantumluke.quantumshops.services.category;
+
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.repository.CategoryRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.services.product.ProductCache;
+import com.quantumluke.quantumshops.services.product.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CategoryCacheTests {
+
+    @Test
+    void getByName_isCaseInsensitive() {
+        CategoryCache cache = new CategoryCache(10);
+        cache.put(category(1L, "Electronics"));
+
+        assertEquals(1L, cache.getByName("ELECTRONICS").orElseThrow().getId());
+        assertEquals(1L, cache.getByName("electronics").orElseThrow().getId());
+        assertTrue(cache.getByName("Electronic").isEmpty());
+        assertEquals(2, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void put_overMaxSize_evictsLeastRecentlyUsed() {
+        CategoryCache cache = new CategoryCache(2);
+        cache.put(category(1L, "Phones"));
+        cache.put(category(2L, "Cameras"));
+        cache.getById(1L);
+        cache.put(category(3L, "Drones"));
+
+        assertTrue(cache.getById(2L).isEmpty());
+        assertTrue(cache.getByName("Cameras").isEmpty());
+        assertTrue(cache.getById(1L).isPresent());
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void get_returnsCopy() {
+        CategoryCache cache = new CategoryCache(10);
+        cache.put(category(1L, "Phones"));
+
+        cache.getById(1L).orElseThrow().setName("Changed");
+
+        assertEquals("Phones", cache.getById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void addCategory_isCachedByName() {
+        CategoryCache cache = new CategoryCache(10);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        CategoryService categoryService = categoryService(categoryRepository, cache);
+        when(categoryRepository.save(any(Category.class))).thenReturn(category(1L, "Phones"));
+
+        categoryService.addCategory(new Category("Phones"));
+
+        assertEquals(1L, categoryService.getCategoryByName("phones").getId());
+        verify(categoryRepository, never()).findByName(any());
+    }
+
+    @Test
+    void updateCategory_replacesOldName() {
+        CategoryCache cache = new CategoryCache(10);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        CategoryService categoryService = categoryService(categoryRepository, cache);
+        cache.put(category(1L, "Phones"));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        categoryService.updateCategory(new Category("Mobiles"), 1L);
+
+        assertTrue(cache.getByName("Phones").isEmpty());
+        assertEquals("Mobiles", cache.getById(1L).orElseThrow().getName());
+        assertEquals(1L, cache.getByName("mobiles").orElseThrow().getId());
+    }
+
+    @Test
+    void deleteCategory_evictsEntry() {
+        CategoryCache cache = new CategoryCache(10);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        CategoryService categoryService = categoryService(categoryRepository, cache);
+        cache.put(category(1L, "Phones"));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category(1L, "Phones")));
+
+        categoryService.deleteCategory(1L);
+
+        assertTrue(cache.getById(1L).isEmpty());
+        assertTrue(cache.getByName("Phones").isEmpty());
+        verify(categoryRepository).delete(any(Category.class));
+    }
+
+    private static CategoryService categoryService(CategoryRepository categoryRepository, CategoryCache cache) {
+        return new CategoryService(categoryRepository, cache, mock(ProductRepository.class), mock(ProductCache.class),
+                mock(ProductSearchIndex.class));
+    }
+
+    private static Category category(Long id, String name) {
+        return new Category(id, name, 0L, null);
+    }
+}
@@ -0,0 +1,189 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import com.quantumluke.quantumshops.repository.ImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Database storage against a real schema that still has the legacy blob column.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:image-storage;MODE=MySQL;NON_KEYWORDS=USER",
+        "images.storage.spool-dir=target/image-storage-spool"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DatabaseImageStorage.class, LegacyImageColumn.class})
+public class DatabaseImageStorageTests {
+    private static final byte[] CONTENT = "packshot".getBytes(StandardCharsets.UTF_8);
+    private static final Path SPOOL = Path.of("target/image-storage-spool");
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DatabaseImageStorage storage;
+    @Autowired
+    private ImageRepository imageRepository;
+    @MockitoSpyBean
+    private ImageContentRepository imageContentRepository;
+    @Autowired
+    private LegacyImageColumn legacyImageColumn;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jdbcTemplate.execute("alter table image add column if not exists image blob");
+        try (Stream<Path> files = Files.list(SPOOL)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void releasingLegacyRow_keepsContentOfLaterUploadWithSameBytes() throws Exception {
+        Image legacy = new Image();
+        legacy.setFilename("legacy.png");
+        entityManager.persist(legacy);
+        entityManager.flush();
+        Image uploaded = new Image();
+        storage.store(uploaded, new ByteArrayInputStream(CONTENT));
+        jdbcTemplate.update("update image set content_hash = ?, file_size = ?, image = ? where id = ?",
+                uploaded.getContentHash(), CONTENT.length, CONTENT, legacy.getId());
+        uploaded.setFilename("uploaded.png");
+        entityManager.persist(uploaded);
+        entityManager.flush();
+        entityManager.clear();
+
+        Image stale = imageRepository.findById(legacy.getId()).orElseThrow();
+        assertEquals(uploaded.getContentHash(), stale.getContentHash());
+        assertFalse(stale.isReferenceCounted());
+        imageRepository.delete(stale);
+        storage.release(stale);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, imageContentRepository.findById(uploaded.getContentHash()).orElseThrow().getReferenceCount());
+        assertEquals("packshot", read(imageRepository.findById(uploaded.getId()).orElseThrow()));
+    }
+
+    @Test
+    void migration_countsHashedRowsOnceAndMovesLegacyBytes() throws Exception {
+        Image counted = new Image();
+        storage.store(counted, new ByteArrayInputStream(CONTENT));
+        entityManager.persist(counted);
+        Image hashedWithoutCount = new Image();
+        hashedWithoutCount.setContentHash(counted.getContentHash());
+        hashedWithoutCount.setFileSize((long) CONTENT.length);
+        entityManager.persist(hashedWithoutCount);
+        Image legacy = new Image();
+        entityManager.persist(legacy);
+        entityManager.flush();
+        jdbcTemplate.update("update image set image = ? where id = ?", "legacy".getBytes(StandardCharsets.UTF_8), legacy.getId());
+        ImageStorageMigration migration = new ImageStorageMigration(jdbcTemplate, transactionTemplate, storage,
+                legacyImageColumn, null);
+
+        migration.backfillReferenceCounts();
+        migration.backfillReferenceCounts();
+        assertEquals(1, migration.migrate());
+        entityManager.clear();
+
+        assertEquals(2, imageContentRepository.findById(counted.getContentHash()).orElseThrow().getReferenceCount());
+        Image migrated = imageRepository.findById(legacy.getId()).orElseThrow();
+        assertTrue(migrated.isReferenceCounted());
+        assertTrue(imageRepository.findById(hashedWithoutCount.getId()).orElseThrow().isReferenceCounted());
+        assertEquals("legacy", read(migrated));
+        assertEquals(0, migration.migrate());
+    }
+
+    @Test
+    void store_streamsContentIntoBlobAndDeletesSpoolFile() throws Exception {
+        byte[] content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        Image image = new Image();
+
+        storage.store(image, new ByteArrayInputStream(content));
+        entityManager.clear();
+
+        String expectedHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals(expectedHash, image.getContentHash());
+        assertEquals(content.length, image.getFileSize());
+        ImageContent stored = imageContentRepository.findById(expectedHash).orElseThrow();
+        assertEquals(content.length, stored.getFileSize());
+        assertArrayEquals(content, stored.getContent().getBytes(1, content.length));
+        assertEquals(0, spoolFileCount());
+    }
+
+    @Test
+    void store_failingUpload_deletesSpoolFile() throws Exception {
+        InputStream failing = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (++read > 10_000) {
+                    throw new IOException("connection reset");
+                }
+                return 'x';
+            }
+        };
+
+        assertThrows(IOException.class, () -> storage.store(new Image(), failing));
+
+        assertEquals(0, imageContentRepository.count());
+        assertEquals(0, spoolFileCount());
+    }
+
+    @Test
+    void store_failingInsert_deletesSpoolFile() throws Exception {
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .when(imageContentRepository).saveAndFlush(any(ImageContent.class));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> storage.store(new Image(), new ByteArrayInputStream(CONTENT)));
+
+        assertEquals(0, spoolFileCount());
+    }
+
+    private static long spoolFileCount() throws IOException {
+        try (Stream<Path> files = Files.list(SPOOL)) {
+            return files.count();
+        }
+    }
+
+    private String read(Image image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage.transferTo(image, Channels.newChannel(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.ImageContent;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class FilesystemImageStorageTests {
+    @TempDir
+    Path root;
+    private ImageContentRepository imageContentRepository;
+    private FilesystemImageStorage storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageContentRepository = mock(ImageContentRepository.class);
+        storage = new FilesystemImageStorage(root.toString(), imageContentRepository, mock(LegacyImageColumn.class));
+    }
+
+    @Test
+    void store_writesContentUnderHashPath() throws Exception {
+        Image image = store("hello");
+
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", image.getContentHash());
+        assertEquals(5L, image.getFileSize());
+        assertTrue(Files.exists(storage.pathOf(image.getContentHash())));
+        assertEquals("hello", read(image));
+    }
+
+    @Test
+    void store_sameContentTwice_keepsOneFileAndCountsReference() throws Exception {
+        when(imageContentRepository.incrementReferences(anyString())).thenReturn(0, 1);
+
+        Image first = store("hello");
+        Image second = store("hello");
+
+        assertEquals(first.getContentHash(), second.getContentHash());
+        verify(imageContentRepository, times(1)).save(any(ImageContent.class));
+        verify(imageContentRepository, times(2)).incrementReferences(first.getContentHash());
+        try (var files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void release_keepsFileWhileStillReferenced() throws Exception {
+        Image image = store("hello");
+        when(imageContentRepository.deleteUnreferenced(image.getContentHash())).thenReturn(0, 1);
+
+        storage.release(image);
+        assertTrue(Files.exists(storage.pathOf(image.getContentHash())));
+
+        storage.release(image);
+        verify(imageContentRepository, times(2)).decrementReferences(image.getContentHash());
+        assertFalse(Files.exists(storage.pathOf(image.getContentHash())));
+    }
+
+    private Image store(String content) throws Exception {
+        Image image = new Image();
+        storage.store(image, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return image;
+    }
+
+    private String read(Image image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage.transferTo(image, Channels.newChannel(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
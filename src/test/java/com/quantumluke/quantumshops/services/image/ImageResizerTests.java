@@ -0,0 +1,47 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageResizerTests {
+
+    private final ImageResizer resizer = new ImageResizer();
+
+    @Test
+    void resize_keepsAspectRatio() throws IOException {
+        byte[] resized = resizer.resize(new ByteArrayInputStream(png(1600, 900)), 200, ImageVariantFormat.JPEG);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(resized));
+        assertEquals(200, image.getWidth());
+        assertEquals(113, image.getHeight());
+    }
+
+    @Test
+    void resize_widerThanSource_doesNotUpscale() throws IOException {
+        byte[] resized = resizer.resize(new ByteArrayInputStream(png(100, 50)), 400, ImageVariantFormat.PNG);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(resized));
+        assertEquals(100, image.getWidth());
+        assertEquals(50, image.getHeight());
+    }
+
+    @Test
+    void resize_notAnImage_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> resizer.resize(new ByteArrayInputStream("not an image".getBytes()), 200, ImageVariantFormat.JPEG));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,144 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.dto.ImageDto;
+import com.quantumluke.quantumshops.mappers.ImageMapper;
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ImageContentRepository;
+import com.quantumluke.quantumshops.repository.ImageMetadata;
+import com.quantumluke.quantumshops.repository.ImageRepository;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageServiceTests {
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private ImageContentRepository imageContentRepository;
+    @Mock
+    private IProductService productService;
+    @Mock
+    private ImageStorage imageStorage;
+    @Mock
+    private ImageResizer imageResizer;
+    @Mock
+    private ImageVariantCache variantCache;
+    @Spy
+    private ImageMapper imageMapper = new ImageMapper();
+    @Spy
+    private ImageUploadWorkers uploadWorkers = new ImageUploadWorkers(4);
+    @InjectMocks
+    private ImageService imageService;
+
+    @Test
+    void saveImages_oneFileFails_savesTheRestInOrder() throws Exception {
+        Product product = new Product();
+        product.setId(7L);
+        when(productService.getProductById(7L)).thenReturn(product);
+        doAnswer(invocation -> {
+            Image image = invocation.getArgument(0);
+            if (image.getFilename().equals("broken.png")) {
+                throw new IOException("disk full");
+            }
+            return null;
+        }).when(imageStorage).store(any(Image.class), any(InputStream.class));
+        AtomicLong ids = new AtomicLong();
+        when(imageRepository.save(any(Image.class))).thenAnswer(invocation -> {
+            Image image = invocation.getArgument(0);
+            image.setId(ids.incrementAndGet());
+            return image;
+        });
+        List<MultipartFile> files = List.of(file("front.png"), file("broken.png"), file("back.png"));
+
+        List<ImageDto> result = imageService.saveImages(files, 7L);
+
+        assertEquals(List.of("front.png", "broken.png", "back.png"), result.stream().map(ImageDto::getFilename).toList());
+        assertNotNull(result.get(0).getId());
+        assertNull(result.get(1).getId());
+        assertTrue(result.get(1).getError().contains("disk full"));
+        assertNull(result.get(2).getError());
+        verify(imageRepository, times(2)).save(any(Image.class));
+        verify(productService, times(1)).bumpProductVersion(7L);
+    }
+
+    @Test
+    void saveImages_recordsDimensionsFromHeader() throws Exception {
+        Product product = new Product();
+        product.setId(7L);
+        when(productService.getProductById(7L)).thenReturn(product);
+        when(imageRepository.save(any(Image.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        List<ImageDto> result = imageService.saveImages(
+                List.of(new MockMultipartFile("files", "photo.png", "image/png", png.toByteArray()), file("notes.txt")), 7L);
+
+        assertEquals(640, result.get(0).getWidth());
+        assertEquals(480, result.get(0).getHeight());
+        assertNull(result.get(1).getWidth());
+        assertNull(result.get(1).getError());
+    }
+
+    @Test
+    void writeImageBundle_streamsEveryImageIntoZip() throws Exception {
+        ImageMetadata front = metadata(1L, "front.png", 7L);
+        ImageMetadata back = metadata(2L, "../back.png", 8L);
+        when(imageRepository.findMetadataByProductIdIn(List.of(7L, 8L))).thenReturn(List.of(front, back));
+        doAnswer(invocation -> {
+            Image image = invocation.getArgument(0);
+            WritableByteChannel target = invocation.getArgument(1);
+            target.write(ByteBuffer.wrap(("image-" + image.getId()).getBytes()));
+            return null;
+        }).when(imageStorage).transferTo(any(Image.class), any(WritableByteChannel.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        imageService.writeImageBundle(List.of(7L, 8L), out);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes()));
+            }
+        }
+        assertEquals(Map.of("product-7/1-front.png", "image-1", "product-8/2-.._back.png", "image-2"), entries);
+    }
+
+    private static ImageMetadata metadata(Long id, String filename, Long productId) {
+        ImageMetadata metadata = mock(ImageMetadata.class);
+        when(metadata.getId()).thenReturn(id);
+        when(metadata.getFilename()).thenReturn(filename);
+        when(metadata.getProductId()).thenReturn(productId);
+        return metadata;
+    }
+
+    private static MockMultipartFile file(String name) {
+        return new MockMultipartFile("files", name, "image/png", name.getBytes());
+    }
+}
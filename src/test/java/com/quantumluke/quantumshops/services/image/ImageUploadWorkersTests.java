@@ -0,0 +1,44 @@
+package com.quantumluke.quantumshops.services.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageUploadWorkersTests {
+
+    @Test
+    void submit_manyTasks_runsAtMostParallelismAtOnce() throws Exception {
+        ImageUploadWorkers workers = new ImageUploadWorkers(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                int task = i;
+                results.add(workers.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return task;
+                }));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertTrue(maxRunning.get() <= 2, () -> "Ran " + maxRunning.get() + " tasks at once");
+        } finally {
+            workers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.quantumluke.quantumshops.services.image;
+
+import com.quantumluke.quantumshops.enums.ImageVariantFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageVariantCacheTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void get_evictedFromMemory_servedFromDisk() throws Exception {
+        ImageVariantCache cache = new ImageVariantCache(directory.toString(), 10, 1_000);
+        AtomicInteger generated = new AtomicInteger();
+
+        cache.get(key(1L), () -> content(8, generated));
+        cache.get(key(2L), () -> content(8, generated));
+        byte[] content = cache.get(key(1L), () -> content(8, generated));
+
+        assertEquals(8, content.length);
+        assertEquals(2, generated.get());
+        assertTrue(Files.exists(directory.resolve(key(1L).fileName())));
+    }
+
+    @Test
+    void get_overDiskBound_deletesLeastRecentlyUsed() throws Exception {
+        ImageVariantCache cache = new ImageVariantCache(directory.toString(), 0, 20);
+        AtomicInteger generated = new AtomicInteger();
+
+        cache.get(key(1L), () -> content(8, generated));
+        cache.get(key(2L), () -> content(8, generated));
+        cache.get(key(1L), () -> content(8, generated));
+        cache.get(key(3L), () -> content(8, generated));
+
+        assertFalse(Files.exists(directory.resolve(key(2L).fileName())));
+        assertTrue(Files.exists(directory.resolve(key(1L).fileName())));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void evict_removesEveryVariantOfImage() throws Exception {
+        ImageVariantCache cache = new ImageVariantCache(directory.toString(), 1_000, 1_000);
+        AtomicInteger generated = new AtomicInteger();
+        ImageVariantKey png = new ImageVariantKey(1L, "abc", 200, ImageVariantFormat.PNG);
+
+        cache.get(key(1L), () -> content(8, generated));
+        cache.get(png, () -> content(8, generated));
+        cache.evict(1L);
+        cache.get(key(1L), () -> content(8, generated));
+
+        assertEquals(3, generated.get());
+        assertFalse(Files.exists(directory.resolve(png.fileName())));
+    }
+
+    @Test
+    void get_newContentHash_neverServesVariantOfOldContent() throws Exception {
+        ImageVariantCache cache = new ImageVariantCache(directory.toString(), 1_000, 1_000);
+        ImageVariantKey oldContent = new ImageVariantKey(1L, "old", 200, ImageVariantFormat.JPEG);
+        ImageVariantKey newContent = new ImageVariantKey(1L, "new", 200, ImageVariantFormat.JPEG);
+
+        cache.get(oldContent, () -> new byte[]{1});
+        byte[] content = cache.get(newContent, () -> new byte[]{2});
+
+        assertArrayEquals(new byte[]{2}, content);
+        assertArrayEquals(new byte[]{1}, cache.get(oldContent, () -> new byte[]{3}));
+        assertNotEquals(oldContent.fileName(), newContent.fileName());
+    }
+
+    @Test
+    void restart_deletesOnlyFilesOfOwnDirectory() throws Exception {
+        ImageVariantCache cache = new ImageVariantCache(directory.toString(), 0, 1_000);
+        cache.get(key(1L), () -> content(8, new AtomicInteger()));
+        Path nested = Files.createDirectories(directory.resolve("nested"));
+        Files.writeString(nested.resolve("keep.txt"), "keep");
+
+        new ImageVariantCache(directory.toString(), 0, 1_000);
+
+        assertFalse(Files.exists(directory.resolve(key(1L).fileName())));
+        assertTrue(Files.exists(nested.resolve("keep.txt")));
+    }
+
+    @Test
+    void foreignNonEmptyDirectory_isRefused() throws Exception {
+        Path foreign = Files.createDirectories(directory.resolve("foreign"));
+        Files.writeString(foreign.resolve("data.txt"), "data");
+
+        assertThrows(IllegalStateException.class, () -> new ImageVariantCache(foreign.toString(), 0, 1_000));
+        assertTrue(Files.exists(foreign.resolve("data.txt")));
+    }
+
+    @Test
+    void get_concurrentMisses_generateOnce() throws Exception {
+        ImageVariantCache cache = new ImageVariantCache(directory.toString(), 1_000, 1_000);
+        AtomicInteger generated = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(key(1L), () -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return content(8, generated);
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                assertEquals(8, result.get(5, TimeUnit.SECONDS).length);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, generated.get());
+    }
+
+    private static ImageVariantKey key(Long imageId) {
+        return new ImageVariantKey(imageId, "abc", 200, ImageVariantFormat.JPEG);
+    }
+
+    private static byte[] content(int length, AtomicInteger generated) {
+        generated.incrementAndGet();
+        return new byte[length];
+    }
+}
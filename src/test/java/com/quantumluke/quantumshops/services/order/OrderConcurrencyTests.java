@@ -0,0 +1,109 @@
+package com.quantumluke.quantumshops.services.order;
+
+import com.quantumluke.quantumshops.mappers.CartMapper;
+import com.quantumluke.quantumshops.mappers.OrderMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Cart;
+import com.quantumluke.quantumshops.models.CartItem;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.models.User;
+import com.quantumluke.quantumshops.repository.CartRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.repository.UserRepository;
+import com.quantumluke.quantumshops.services.cart.CartService;
+import com.quantumluke.quantumshops.services.cart.CartUpdateRetry;
+import com.quantumluke.quantumshops.services.cart.DatabaseCartStore;
+import com.quantumluke.quantumshops.services.product.IProductService;
+import com.quantumluke.quantumshops.services.product.ProductCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several shoppers checking out the same product at once: every order must go through, and the
+ * inventory must drop by exactly the quantity ordered.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:order-concurrency;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderService.class, CartService.class, DatabaseCartStore.class, CartUpdateRetry.class,
+        OrderMapper.class, CartMapper.class, ProductMapper.class, ProductCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderConcurrencyTests {
+    private static final int SHOPPERS = 8;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoBean
+    private IProductService productService;
+
+    @Test
+    void concurrentCheckouts_ofSameProduct_allSucceed() throws Exception {
+        Product product = new Product();
+        product.setName("Lens");
+        product.setPrice(new BigDecimal("100"));
+        product.setInventory(50);
+        Long productId = productRepository.save(product).getId();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < SHOPPERS; i++) {
+            userIds.add(transactionTemplate.execute(status -> {
+                User user = new User();
+                user.setEmail("shopper" + System.nanoTime() + "@example.com");
+                userRepository.save(user);
+                Cart cart = new Cart();
+                cart.setUser(user);
+                CartItem item = new CartItem();
+                item.setProduct(productRepository.getReferenceById(productId));
+                item.setQuantity(2);
+                item.setUnitPrice(new BigDecimal("100"));
+                item.setTotalPrice();
+                cart.addItem(item);
+                cartRepository.save(cart);
+                return user.getId();
+            }));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(SHOPPERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long userId : userIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return orderService.createOrder(userId);
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Product stored = productRepository.findById(productId).orElseThrow();
+        assertEquals(50 - SHOPPERS * 2, stored.getInventory());
+        assertEquals(SHOPPERS, stored.getVersion());
+    }
+}
@@ -0,0 +1,165 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTests {
+
+    @Test
+    void get_cachedProduct_loadsOnce() {
+        ProductCache cache = new ProductCache(10, 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> product(id, loads));
+        Product product = cache.get(1L, id -> product(id, loads));
+
+        assertEquals(1L, product.getId());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    void evict_removesEntry() {
+        ProductCache cache = new ProductCache(10, 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> product(id, loads));
+        cache.evict(1L);
+        cache.get(1L, id -> product(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_inTransaction_evictsAgainAfterCompletion() {
+        ProductCache cache = new ProductCache(10, 300);
+        AtomicInteger loads = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(1L);
+            cache.get(1L, id -> product(id, loads));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get(1L, id -> product(id, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_returnsCopyOfCachedProduct() {
+        ProductCache cache = new ProductCache(10, 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        Product first = cache.get(1L, id -> product(id, loads));
+        first.setInventory(7);
+        Product second = cache.get(1L, id -> product(id, loads));
+        second.setInventory(3);
+
+        assertNotSame(first, second);
+        assertEquals(0, cache.get(1L, id -> product(id, loads)).getInventory());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_loadingCaller_alsoGetsCopy() {
+        ProductCache cache = new ProductCache(10, 300);
+        Product loaded = product(1L, new AtomicInteger());
+
+        Product result = cache.get(1L, id -> loaded);
+
+        assertNotSame(loaded, result);
+        assertEquals(loaded.getId(), result.getId());
+    }
+
+    @Test
+    void get_overMaxSize_evictsLeastRecentlyUsed() {
+        ProductCache cache = new ProductCache(2, 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> product(id, loads));
+        cache.get(2L, id -> product(id, loads));
+        cache.get(1L, id -> product(id, loads));
+        cache.get(3L, id -> product(id, loads));
+        cache.get(1L, id -> product(id, loads));
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void get_loaderThrows_isNotCached() {
+        ProductCache cache = new ProductCache(10, 300);
+
+        assertThrows(ResourceNotFoundException.class, () -> cache.get(1L, id -> {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
+        }));
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void get_concurrentMisses_coalesceIntoSingleLoad() throws Exception {
+        ProductCache cache = new ProductCache(10, 300);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Product>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(1L, id -> {
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return product(id, loads);
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get(1L, id -> product(id, loads))));
+            }
+            while (cache.stats().getCoalescedLoads() < threads - 1) {
+                Thread.onSpinWait();
+            }
+            releaseLoader.countDown();
+
+            for (Future<Product> result : results) {
+                assertEquals(1L, result.get(5, TimeUnit.SECONDS).getId());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Product product(Long id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.config.QueryCountInspector;
+import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.mappers.ImageMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Image;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.services.category.ICategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Converting a list of products takes one query for all their images, however many products there are.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-conversion;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.quantumluke.quantumshops.config.QueryCountInspector"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductService.class, ProductMapper.class, ImageMapper.class})
+public class ProductConversionQueryTests {
+    private static final int PRODUCTS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @MockitoBean
+    private ICategoryService categoryService;
+    @MockitoBean
+    private ProductSearchIndex searchIndex;
+    @MockitoBean
+    private ProductIngestPipeline ingestPipeline;
+    @MockitoBean
+    private ProductCache productCache;
+    @MockitoBean
+    private ProductFacetCounts facetCounts;
+
+    @BeforeEach
+    void setUp() {
+        Category category = entityManager.persist(new Category("Cameras"));
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Lens " + i);
+            product.setBrand("Optix");
+            product.setPrice(BigDecimal.TEN);
+            product.setCategory(category);
+            entityManager.persist(product);
+            for (String side : List.of("front", "back")) {
+                Image image = new Image();
+                image.setFilename(side + ".png");
+                image.setFileType("image/png");
+                image.setProduct(product);
+                entityManager.persist(image);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getConvertedProducts_takesOneQueryForAnyNumberOfProducts() {
+        List<Product> products = productRepository.findAll();
+        assertEquals(PRODUCTS, products.size());
+
+        for (int size : List.of(1, 10, PRODUCTS)) {
+            long queriesBefore = QueryCountInspector.current();
+
+            List<ProductDto> productDtos = productService.getConvertedProducts(products.subList(0, size));
+
+            assertEquals(1, QueryCountInspector.current() - queriesBefore, "queries for " + size + " products");
+            assertEquals(size, productDtos.size());
+            assertTrue(productDtos.stream().allMatch(productDto -> productDto.getImage().size() == 2));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.dto.FacetCountsDto;
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.services.category.ICategoryService;
+import com.quantumluke.quantumshops.repository.ProductFacetCount;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductFacetCountsTests {
+    private ProductFacetCounts facetCounts;
+    private ICategoryService categoryService;
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        categoryService = mock(ICategoryService.class);
+        when(categoryService.getCategoryById(1L)).thenReturn(new Category(1L, "Electronics", 0L, null));
+        when(categoryService.getCategoryById(2L)).thenReturn(new Category(2L, "Accessories", 0L, null));
+        productRepository = mock(ProductRepository.class);
+        facetCounts = new ProductFacetCounts(productRepository, categoryService);
+        facetCounts.increment(new ProductFacetCounts.Facet(1L, "Samsung"));
+        facetCounts.increment(new ProductFacetCounts.Facet(1L, "Samsung"));
+        facetCounts.increment(new ProductFacetCounts.Facet(1L, "Apple"));
+        facetCounts.increment(new ProductFacetCounts.Facet(2L, "Spigen"));
+    }
+
+    @Test
+    void snapshot_countsPerCategoryBrandAndPair() {
+        FacetCountsDto facets = facetCounts.snapshot();
+
+        assertEquals(Map.of("Electronics", 3L, "Accessories", 1L), facets.getCategories());
+        assertEquals(Map.of("samsung", 2L, "apple", 1L, "spigen", 1L), facets.getBrands());
+        assertEquals(Map.of("samsung", 2L, "apple", 1L), facets.getCategoryBrands().get("Electronics"));
+    }
+
+    @Test
+    void move_changesBothFacets() {
+        facetCounts.move(new ProductFacetCounts.Facet(1L, "Apple"), new ProductFacetCounts.Facet(2L, "Apple"));
+
+        FacetCountsDto facets = facetCounts.snapshot();
+        assertEquals(2L, facets.getCategories().get("Electronics"));
+        assertEquals(2L, facets.getCategories().get("Accessories"));
+        assertEquals(1L, facets.getBrands().get("apple"));
+        assertFalse(facets.getCategoryBrands().get("Electronics").containsKey("apple"));
+    }
+
+    @Test
+    void decrement_toZero_removesFacet() {
+        facetCounts.decrement(new ProductFacetCounts.Facet(2L, "Spigen"));
+
+        FacetCountsDto facets = facetCounts.snapshot();
+        assertFalse(facets.getCategories().containsKey("Accessories"));
+        assertFalse(facets.getBrands().containsKey("spigen"));
+        assertFalse(facets.getCategoryBrands().containsKey("Accessories"));
+    }
+
+    @Test
+    void increment_afterRebuild_countsBrandIgnoringCase() {
+        ProductFacetCount row = mock(ProductFacetCount.class);
+        when(row.getCategoryId()).thenReturn(2L);
+        when(row.getBrand()).thenReturn("nike");
+        when(row.getProductCount()).thenReturn(2L);
+        when(productRepository.countByCategoryAndBrand()).thenReturn(List.of(row));
+        facetCounts.rebuild();
+
+        facetCounts.increment(new ProductFacetCounts.Facet(2L, "Nike"));
+        facetCounts.increment(new ProductFacetCounts.Facet(2L, "NIKE"));
+
+        FacetCountsDto facets = facetCounts.snapshot();
+        assertEquals(Map.of("nike", 4L), facets.getBrands());
+        assertEquals(Map.of("nike", 4L), facets.getCategoryBrands().get("Accessories"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.CategoryRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.request.AddProductRequest;
+import com.quantumluke.quantumshops.response.ProductIngestResult;
+import com.quantumluke.quantumshops.response.ProductIngestSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Each chunk commits on its own: results keep the request order across chunk boundaries, duplicates
+ * are rejected within a chunk and against rows already stored, and a failing chunk fails only its own
+ * items.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:product-ingest;MODE=MySQL;NON_KEYWORDS=USER")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductIngestPipeline.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductIngestPipelineTests {
+    @Autowired
+    private ProductIngestPipeline ingestPipeline;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @MockitoBean
+    private ProductSearchIndex searchIndex;
+    @MockitoBean
+    private ProductFacetCounts facetCounts;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void ingest_acrossChunkBoundaries_keepsRequestOrder() {
+        List<AddProductRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request("Lens " + i, "Optix", "Cameras", "A lens"));
+        }
+        List<ProductIngestResult> results = new ArrayList<>();
+
+        ProductIngestSummary summary = ingestPipeline.ingest(requests, 2, results::add);
+
+        assertEquals(5, summary.getSucceeded());
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(ProductIngestResult::getIndex).toList());
+        assertTrue(results.stream().allMatch(ProductIngestResult::isSuccess));
+        assertEquals(5, results.stream().map(ProductIngestResult::getProductId).distinct().count());
+        assertEquals(5, productRepository.count());
+        assertEquals(1, categoryRepository.count());
+        verify(searchIndex, times(5)).index(any(Product.class));
+    }
+
+    @Test
+    void ingest_duplicates_rejectedWithinChunkAndAgainstStoredRows() {
+        Category category = categoryRepository.save(new Category("Phones"));
+        Product existing = new Product();
+        existing.setName("Phone");
+        existing.setBrand("Quantum");
+        existing.setCategory(category);
+        productRepository.save(existing);
+        List<ProductIngestResult> results = new ArrayList<>();
+
+        ProductIngestSummary summary = ingestPipeline.ingest(List.of(
+                request("Phone", "Quantum", "Phones", null),
+                request("Lens", "Optix", "Cameras", null),
+                request("LENS", "optix", "Cameras", null),
+                request("Lens", "Optix", "Cameras", null),
+                request("Tripod", "Optix", "Cameras", null)), 3, results::add);
+
+        assertEquals(List.of(false, true, false, false, true), results.stream().map(ProductIngestResult::isSuccess).toList());
+        assertEquals(2, summary.getSucceeded());
+        assertEquals(3, summary.getFailed());
+        assertEquals(3, productRepository.count());
+    }
+
+    @Test
+    void ingest_failingChunk_failsOnlyItsItems() {
+        List<ProductIngestResult> results = new ArrayList<>();
+
+        ProductIngestSummary summary = ingestPipeline.ingest(List.of(
+                request("Mini", "Aero", "Drones", null),
+                request("Max", "Aero", "Drones", "x".repeat(1000)),
+                request("Pro", "Aero", "Drones", null)), 2, results::add);
+
+        assertEquals(List.of(false, false, true), results.stream().map(ProductIngestResult::isSuccess).toList());
+        assertNotNull(results.get(0).getError());
+        assertEquals(1, summary.getSucceeded());
+        assertEquals(List.of("Pro"), productRepository.findAll().stream().map(Product::getName).toList());
+        // The category created by the rolled-back chunk is created again, not reused.
+        assertEquals(1, categoryRepository.findByNameIn(List.of("Drones")).size());
+        verify(searchIndex, times(1)).index(any(Product.class));
+    }
+
+    private static AddProductRequest request(String name, String brand, String category, String description) {
+        AddProductRequest request = new AddProductRequest();
+        request.setName(name);
+        request.setBrand(brand);
+        request.setPrice(new BigDecimal("10"));
+        request.setInventory(5);
+        request.setDescription(description);
+        request.setCategory(new Category(category));
+        return request;
+    }
+}
@@ -0,0 +1,117 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.dto.ProductSearchHitDto;
+import com.quantumluke.quantumshops.models.Category;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductSearchIndexTests {
+    private ProductRepository productRepository;
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        searchIndex = new ProductSearchIndex(productRepository);
+        searchIndex.index(product(1L, "Galaxy Phone", "Samsung", "Electronics"));
+        searchIndex.index(product(2L, "Phone Case", "Spigen", "Accessories"));
+        searchIndex.index(product(3L, "Smart TV", "Samsung", "Electronics"));
+    }
+
+    @Test
+    void search_prefixAndCaseInsensitive_returnsMatches() {
+        List<ProductSearchHitDto> hits = searchIndex.search("PHO", 0, 10);
+
+        assertEquals(List.of(1L, 2L), hits.stream().map(ProductSearchHitDto::getId).toList());
+    }
+
+    @Test
+    void search_multipleTokens_requiresAllTokens() {
+        List<ProductSearchHitDto> hits = searchIndex.search("samsung phone", 0, 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).getId());
+    }
+
+    @Test
+    void search_nameMatch_ranksAboveCategoryMatch() {
+        searchIndex.index(product(4L, "Electronics Cleaner", "Generic", "Cleaning"));
+
+        List<ProductSearchHitDto> hits = searchIndex.search("electronics", 0, 10);
+
+        assertEquals(4L, hits.get(0).getId());
+        assertEquals(3, hits.size());
+    }
+
+    @Test
+    void search_paging_returnsRequestedSlice() {
+        List<ProductSearchHitDto> hits = searchIndex.search("samsung", 1, 1);
+
+        assertEquals(1, hits.size());
+        assertEquals(3L, hits.get(0).getId());
+    }
+
+    @Test
+    void index_updatedProduct_replacesOldTokens() {
+        searchIndex.index(product(2L, "Screen Protector", "Spigen", "Accessories"));
+
+        assertTrue(searchIndex.search("case", 0, 10).isEmpty());
+        assertEquals(1, searchIndex.search("screen", 0, 10).size());
+    }
+
+    @Test
+    void remove_deletedProduct_isNoLongerFound() {
+        searchIndex.remove(3L);
+
+        assertTrue(searchIndex.search("tv", 0, 10).isEmpty());
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    void rebuild_servesOldPostingsAndKeepsConcurrentWrites() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            assertEquals(1, searchIndex.search("tv", 0, 10).size());
+            searchIndex.index(product(9L, "Camera Drone", "Dji", "Electronics"));
+            searchIndex.remove(1L);
+            return List.of(product(1L, "Galaxy Phone", "Samsung", "Electronics"), product(5L, "Laptop", "Lenovo", "Computers"));
+        });
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of(5L), searchIndex.search("laptop", 0, 10).stream().map(ProductSearchHitDto::getId).toList());
+        assertEquals(List.of(9L), searchIndex.search("drone", 0, 10).stream().map(ProductSearchHitDto::getId).toList());
+        assertTrue(searchIndex.search("galaxy", 0, 10).isEmpty());
+        assertTrue(searchIndex.search("tv", 0, 10).isEmpty());
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    void reindexCategory_renamedCategory_matchesNewName() {
+        when(productRepository.findByCategoryIdAndIdGreaterThanOrderByIdAsc(eq(1L), eq(0L), any())).thenReturn(List.of(
+                product(1L, "Galaxy Phone", "Samsung", "Devices"), product(3L, "Smart TV", "Samsung", "Devices")));
+
+        searchIndex.reindexCategory(1L);
+
+        assertEquals(2, searchIndex.search("devices", 0, 10).size());
+        assertTrue(searchIndex.search("electronics", 0, 10).isEmpty());
+    }
+
+    private Product product(Long id, String name, String brand, String category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(new Category(category));
+        return product;
+    }
+}
@@ -0,0 +1,103 @@
+package com.quantumluke.quantumshops.services.product;
+
+import com.quantumluke.quantumshops.dto.ProductDto;
+import com.quantumluke.quantumshops.mappers.ImageMapper;
+import com.quantumluke.quantumshops.mappers.ProductMapper;
+import com.quantumluke.quantumshops.models.Product;
+import com.quantumluke.quantumshops.repository.ImageMetadata;
+import com.quantumluke.quantumshops.repository.ImageRepository;
+import com.quantumluke.quantumshops.repository.ProductRepository;
+import com.quantumluke.quantumshops.services.category.ICategoryService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductServiceTests {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ICategoryService categoryService;
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+    @Spy
+    private ImageMapper imageMapper = new ImageMapper();
+    @InjectMocks
+    private ProductService productService;
+
+    @Test
+    void getConvertedProducts_manyProducts_loadsImagesWithSingleQuery() {
+        List<Product> products = LongStream.rangeClosed(1, 50).mapToObj(this::product).toList();
+        ImageMetadata image = imageMetadata(10L, "front.png", 7L);
+        when(imageRepository.findMetadataByProductIdIn(anyCollection())).thenReturn(List.of(image));
+
+        List<ProductDto> result = productService.getConvertedProducts(products);
+
+        assertEquals(50, result.size());
+        assertEquals(1, result.get(6).getImage().size());
+        assertEquals("front.png", result.get(6).getImage().get(0).getFilename());
+        assertTrue(result.get(0).getImage().isEmpty());
+        verify(imageRepository, times(1)).findMetadataByProductIdIn(anyCollection());
+        verify(imageRepository, never()).findMetadataByProductId(any());
+    }
+
+    @Test
+    void getConvertedProducts_emptyList_issuesNoQuery() {
+        List<ProductDto> result = productService.getConvertedProducts(List.of());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(imageRepository);
+    }
+
+    @Test
+    void exportProducts_readsInKeysetChunksUntilShortChunk() {
+        ReflectionTestUtils.setField(productService, "exportChunkSize", 2);
+        when(productRepository.findByBrandAndIdGreaterThanOrderByIdAsc(eq("Acme"), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(product(1), product(2)));
+        when(productRepository.findByBrandAndIdGreaterThanOrderByIdAsc(eq("Acme"), eq(2L), any(Limit.class)))
+                .thenReturn(List.of(product(3)));
+        List<List<ProductDto>> chunks = new ArrayList<>();
+
+        productService.exportProducts(null, "Acme", chunks::add);
+
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+        assertEquals(3L, chunks.get(1).get(0).getId());
+        verify(entityManager, times(2)).clear();
+        verify(productRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    private Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("product" + id);
+        return product;
+    }
+
+    private ImageMetadata imageMetadata(Long id, String filename, Long productId) {
+        ImageMetadata image = mock(ImageMetadata.class);
+        when(image.getId()).thenReturn(id);
+        when(image.getFilename()).thenReturn(filename);
+        when(image.getProductId()).thenReturn(productId);
+        return image;
+    }
+}
@@ -3,6 +3,7 @@ package com.quantumluke.quantumshops.services.user;
 import com.quantumluke.quantumshops.dto.UserDto;
 import com.quantumluke.quantumshops.exceptions.AlreadyExistsException;
 import com.quantumluke.quantumshops.exceptions.ResourceNotFoundException;
+import com.quantumluke.quantumshops.mappers.UserMapper;
 import com.quantumluke.quantumshops.models.User;
 import com.quantumluke.quantumshops.repository.UserRepository;
 import com.quantumluke.quantumshops.request.CreateUserRequest;
@@ -13,7 +14,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -30,7 +30,7 @@ public class UserServiceTests {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
     @Mock
     private PasswordEncoder passwordEncoder;
     @InjectMocks
@@ -133,12 +133,12 @@ public class UserServiceTests {
     @Test
     void convertUserToDto_validUser_returnsUserDto() {
         UserDto userDto = new UserDto();
-        when(modelMapper.map(testUser, UserDto.class)).thenReturn(userDto);
+        when(userMapper.toDto(testUser)).thenReturn(userDto);
 
         UserDto result = userService.convertUserToDto(testUser);
 
         assertNotNull(result);
-        verify(modelMapper).map(testUser, UserDto.class);
+        verify(userMapper).toDto(testUser);
     }
 
     @Test